@@ -0,0 +1,30 @@
+package org.gcsl;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the JMH benchmarks with the GC profiler, so each score comes with its allocation rate
+// (gc.alloc.rate.norm is the bytes allocated per operation).
+// The arguments are regular expressions selecting the benchmarks to run, all are run by default.
+//     GcslBenchmarks SdifParseBenchmark.readFile
+public class GcslBenchmarks
+{
+    public static void main(String[] args) throws RunnerException
+    {
+        OptionsBuilder options = new OptionsBuilder();
+        if (args.length == 0) {
+            options.include("org\\.gcsl\\..*Benchmark");
+        }
+        for (String arg : args) {
+            options.include(arg);
+        }
+
+        Options opts = options.addProfiler(GCProfiler.class)
+                              .shouldFailOnError(true)
+                              .build();
+        new Runner(opts).run();
+    }
+}
@@ -0,0 +1,88 @@
+package org.gcsl;
+
+import org.gcsl.db.DbCache;
+import org.gcsl.db.SeasonDb;
+import org.gcsl.model.MeetResults;
+import org.gcsl.model.Team;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks the DB side of a whole import, the way GcslApp runs it, against a full season DB:
+//   resultsToDb - ResultsToDbTask writes the next week of results (20 dual meets, 310 athletes
+//                 each, 10 of them orphans)
+//   rostersToDb - RostersToDbTask merges the rosters of all 40 teams, with 10 new athletes
+//                 replacing 10 existing ones on each team
+// Both tasks commit, so every call starts from a fresh copy of the season DB.  Copying the DB
+// and building the meets and rosters are done in the setup and are not part of the score.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImportFlowBenchmark
+{
+    private static final int ROSTER_CHANGES = 10;
+
+    private SeasonDb          season;
+    private Path              workFile;
+    private Connection        db;
+    private List<MeetResults> meets;
+    private List<Team>        rosters;
+
+
+    @Setup(Level.Trial)
+    public void createDb() throws IOException, SQLException
+    {
+        season   = SeasonDb.create();
+        workFile = season.getFile().resolveSibling("work.sqlite");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDb() throws IOException
+    {
+        season.delete();
+    }
+
+    @Setup(Level.Invocation)
+    public void copyDb() throws IOException, SQLException
+    {
+        Files.copy(season.getFile(), workFile, StandardCopyOption.REPLACE_EXISTING);
+        db = SeasonDb.connect(workFile);
+        DbCache.clear();   // IDs cached from the last copy may not be in this one
+
+        meets = new ArrayList<>();
+        for (int m = SeasonDb.NUM_MEETS; m < SeasonDb.NUM_MEETS + SeasonDb.MEETS_PER_WEEK; m++) {
+            meets.add(season.meetResults(m, false));
+        }
+        rosters = season.rosters(ROSTER_CHANGES);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeDb() throws SQLException
+    {
+        SeasonDb.close(db);
+    }
+
+
+    @Benchmark
+    public List<MeetResults> resultsToDb() throws Exception
+    {
+        return new ResultsToDbTask(db, meets).runHeadless();
+    }
+
+    @Benchmark
+    public Void rostersToDb() throws Exception
+    {
+        return new RostersToDbTask(db, rosters).runHeadless();
+    }
+}
@@ -0,0 +1,104 @@
+package org.gcsl.db;
+
+import org.gcsl.model.Athlete;
+import org.gcsl.model.Meet;
+import org.gcsl.model.MeetResults;
+import org.gcsl.model.Orphan;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks the DBO calls the imports and reports make, against a full season DB (see SeasonDb).
+// Each lookup benchmark works through a different athlete, team or meet on every call.  The
+// cacheSize parameter is the DbCache size:  1 effectively turns the cache off.
+// meetInsert inserts a new meet (300 athletes and 10 orphans) and rolls it back afterwards, so
+// the DB is the same for every call.
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DboBenchmark
+{
+    @Param({"1", "10000"})
+    public int cacheSize;
+
+    private SeasonDb          season;
+    private Connection        db;
+    private List<Athlete>     athletes = new ArrayList<>();
+    private List<MeetResults> meets    = new ArrayList<>();
+    private MeetResults       newMeet;
+    private int               next;
+
+
+    @Setup(Level.Trial)
+    public void createDb() throws IOException, SQLException
+    {
+        season = SeasonDb.create();
+        db     = SeasonDb.connect(season.getFile());
+
+        for (int t = 0; t < SeasonDb.NUM_TEAMS; t++) {
+            athletes.addAll(season.getRoster(t));
+        }
+        for (int m = 0; m < SeasonDb.NUM_MEETS; m++) {
+            meets.add(season.meetResults(m, true));
+        }
+        newMeet = season.meetResults(SeasonDb.NUM_MEETS, true);
+
+        DbConfig.setCacheSize(cacheSize);
+        DbCache.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDb() throws IOException, SQLException
+    {
+        SeasonDb.close(db);
+        season.delete();
+    }
+
+
+    @Benchmark
+    public Athlete athleteFind() throws SQLException
+    {
+        return AthleteDbo.find(db, athletes.get(next++ % athletes.size()));
+    }
+
+    @Benchmark
+    public Set<Athlete> teamRetrieveAthletes() throws SQLException
+    {
+        return TeamDbo.retrieveAthletes(db, season.getTeam(next++ % SeasonDb.NUM_TEAMS));
+    }
+
+    @Benchmark
+    public Meet meetFindByTeams() throws SQLException
+    {
+        return MeetDbo.findByTeams(db, meets.get(next++ % meets.size()));
+    }
+
+    @Benchmark
+    public int meetInsert() throws SQLException
+    {
+        db.setAutoCommit(false);
+        try {
+            return MeetDbo.insert(db, newMeet);
+        }
+        finally {
+            db.rollback();
+            db.setAutoCommit(true);
+            DbCache.clear();
+        }
+    }
+
+    @Benchmark
+    public List<Orphan> orphanFindAll()
+    {
+        return OrphanDbo.findAll(db);
+    }
+}
@@ -0,0 +1,190 @@
+package org.gcsl.db;
+
+import org.gcsl.model.Athlete;
+import org.gcsl.model.MeetResults;
+import org.gcsl.model.ProcessArchiveItem;
+import org.gcsl.model.Team;
+import org.gcsl.util.Utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+// A made up GCSL season in an SQLite file, for the DB benchmarks.  The DB is created with the
+// SchemaMigrator and filled through the DBOs, the same way the imports fill it:
+//     40 teams of 200 athletes                     =  8,000 athletes
+//     200 meets (10 weeks of 20 dual meets), 150 athletes per team at each meet
+//                                                  = 60,000 athlete-meet rows
+//     5 orphans per team at each meet              =  2,000 orphans
+// The meets of week w are on SEASON_START + w weeks and pair team 2p with team (2p + 1 + 2w) % 40.
+public final class SeasonDb
+{
+    public static final int       NUM_TEAMS         = 40;
+    public static final int       ATHLETES_PER_TEAM = 200;
+    public static final int       NUM_MEETS         = 200;
+    public static final int       MEETS_PER_WEEK    = NUM_TEAMS / 2;
+    public static final int       ATHLETES_AT_MEET  = 150;   // per team
+    public static final int       ORPHANS_AT_MEET   = 5;     // per team
+    public static final LocalDate SEASON_START      = LocalDate.of(2019, 6, 10);
+
+    private final Path                file;
+    private final List<List<Athlete>> rosters = new ArrayList<>();   // per team, with DB IDs
+    private final List<Team>          teams   = new ArrayList<>();   // without athletes, with DB IDs
+
+
+    private SeasonDb(Path file)
+    {
+        this.file = file;
+    }
+
+
+    // Create the season DB as season.sqlite in a new temp directory.  The DB is closed when this
+    // returns, so the file can be copied.  delete() removes the directory.
+    public static SeasonDb create() throws IOException, SQLException
+    {
+        SeasonDb season = new SeasonDb(Files.createTempDirectory("gcsl_season").resolve("season.sqlite"));
+        Connection db = connect(season.file);
+        try {
+            db.setAutoCommit(false);
+            for (int t = 0; t < NUM_TEAMS; t++) {
+                Team team = new Team(Utils.INVALID_ID, teamCode(t), "Season Team " + t, "");
+                for (int a = 0; a < ATHLETES_PER_TEAM; a++) {
+                    team.addAthlete(athlete(t, a));
+                }
+                season.teams.add(TeamDbo.insert(db, team));
+                AthleteDbo.insert(db, team.getAthletes());
+
+                List<Athlete> roster = new ArrayList<>(team.getAthletes());
+                roster.sort((a1, a2) -> Integer.compare(a1.getId(), a2.getId()));
+                season.rosters.add(roster);
+            }
+            for (int m = 0; m < NUM_MEETS; m++) {
+                MeetDbo.insert(db, season.meetResults(m, true));
+            }
+            db.commit();
+        }
+        finally {
+            close(db);
+        }
+        DbCache.clear();
+
+        System.out.printf("SeasonDb: created %s with %d teams, %d athletes and %d meets. %n",
+                          season.file, NUM_TEAMS, NUM_TEAMS * ATHLETES_PER_TEAM, NUM_MEETS);
+        return season;
+    }
+
+
+    // Open a season DB file the way GcslApp opens its DB (default pragmas, schema up to date).
+    public static Connection connect(Path file) throws SQLException
+    {
+        Connection db = DriverManager.getConnection("jdbc:sqlite:" + file);
+        DbBootstrap.configure(db, new Properties());
+        return db;
+    }
+
+
+    public static void close(Connection db) throws SQLException
+    {
+        StatementCache.closeAll(db);
+        db.close();
+    }
+
+
+    // Delete the season DB directory and any other files (copies of the DB) put in it.
+    public void delete() throws IOException
+    {
+        Path dir = file.getParent();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator) {
+                Files.delete(f);
+            }
+        }
+        Files.delete(dir);
+    }
+
+
+    public Path getFile() { return file; }
+
+
+    // The roster of team t as stored in the DB, ordered by athlete ID
+    public List<Athlete> getRoster(int t) { return rosters.get(t); }
+
+    public Team getTeam(int t)            { return teams.get(t); }
+
+
+    // Return the results of meet m (meets past NUM_MEETS are in later weeks, and not in the DB).
+    // When resolved is false the results are as read from a result file:  no team or athlete IDs,
+    // with the orphans mixed in with the athletes.  When resolved is true they are as
+    // ResultsToDbTask passes them to MeetDbo.insert:  IDs set and the orphans separate.
+    public MeetResults meetResults(int m, boolean resolved)
+    {
+        int week = m / MEETS_PER_WEEK;
+        int pair = m % MEETS_PER_WEEK;
+        int[] meetTeams = { 2 * pair, (2 * pair + 1 + 2 * week) % NUM_TEAMS };
+
+        MeetResults meet = new MeetResults(SEASON_START.plusWeeks(week), "Season Meet " + m,
+                                           ProcessArchiveItem.Scenario.MEET_RESULTS);
+        meet.setResultFileDate(SEASON_START.plusWeeks(week).toString());
+
+        for (int t : meetTeams) {
+            Team dbTeam = teams.get(t);
+            Team team = new Team(resolved ? dbTeam.getId() : Utils.INVALID_ID, dbTeam.getCode(), dbTeam.getName(), "");
+            List<Athlete> roster = rosters.get(t);
+
+            for (int a = 0; a < ATHLETES_AT_MEET; a++) {
+                Athlete rosterAthlete = roster.get((a + m) % ATHLETES_PER_TEAM);
+                Athlete athlete = new Athlete(rosterAthlete.getName(), rosterAthlete.getGender(), rosterAthlete.getDob());
+                if (resolved) {
+                    athlete.setId(rosterAthlete.getId());
+                }
+                team.addAthlete(athlete);
+            }
+            for (int o = 0; o < ORPHANS_AT_MEET; o++) {
+                Athlete orphan = new Athlete("Orphan" + m + "x" + o + ", Swimmer", o % 2 == 0 ? "F" : "M", "2010-01-0" + (o + 1));
+                if (resolved) {
+                    orphan.setTeamId(team.getId());
+                    meet.addOrphan(orphan);
+                }
+                else {
+                    team.addAthlete(orphan);
+                }
+            }
+            meet.addTeam(team);
+        }
+        return meet;
+    }
+
+
+    // Return the rosters of all the teams as read from roster files, with numChanged athletes
+    // per team replaced by new athletes.
+    public List<Team> rosters(int numChanged)
+    {
+        List<Team> rosterTeams = new ArrayList<>();
+
+        for (int t = 0; t < NUM_TEAMS; t++) {
+            Team team = new Team(Utils.INVALID_ID, teamCode(t), teams.get(t).getName(), "");
+            for (int a = 0; a < ATHLETES_PER_TEAM; a++) {
+                team.addAthlete(a < numChanged ? athlete(t, ATHLETES_PER_TEAM + a) : athlete(t, a));
+            }
+            rosterTeams.add(team);
+        }
+        return rosterTeams;
+    }
+
+
+    private static Athlete athlete(int t, int a)
+    {
+        String dob = String.format("%04d-%02d-%02d", 2004 + a % 12, a % 12 + 1, a % 28 + 1);
+        return new Athlete("Last" + t + "x" + a + ", First" + a, a % 2 == 0 ? "F" : "M", dob);
+    }
+
+    private static String teamCode(int t) { return "S" + (100 + t); }
+}
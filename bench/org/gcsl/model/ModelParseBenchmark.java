@@ -0,0 +1,88 @@
+package org.gcsl.model;
+
+import org.gcsl.sdif.SdifException;
+import org.gcsl.sdif.SdifGenerator;
+import org.gcsl.sdif.SdifReader;
+import org.gcsl.sdif.SdifRec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks building the model objects from SDIF records that have already been read.  The
+// records come from a dual meet and a team roster made by the SdifGenerator.
+// The athlete benchmarks create one athlete per record over a batch of records, so the
+// score is for the whole batch (see @OperationsPerInvocation for the per-athlete figure).
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModelParseBenchmark
+{
+    private static final int NUM_ATHLETES = 1000;
+
+    private SdifRec[] meetResultRecs;
+    private SdifRec[] hy3AthleteRecs;
+    private SdifRec   teamRec;
+    private SdifRec   meetRec;
+
+
+    @Setup(Level.Trial)
+    public void createRecs()
+    {
+        SdifGenerator generator = new SdifGenerator(2, NUM_ATHLETES, 1, 0.1, 1);
+        List<String> results = generator.resultRecords(0, 1, LocalDate.of(2019, 6, 17));
+        List<String> roster  = generator.rosterRecords(0, SdifReader.SdifFileFormat.HY3);
+
+        meetResultRecs = recs(results, "D0");
+        hy3AthleteRecs = recs(roster, "D1");
+        teamRec        = recs(results, "C1")[0];
+        meetRec        = recs(results, "B1")[0];
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ATHLETES)
+    public void athleteFromSdifMeetResult(Blackhole bh) throws SdifException
+    {
+        for (SdifRec rec : meetResultRecs) {
+            bh.consume(Athlete.fromSdifMeetResult(rec));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ATHLETES)
+    public void athleteFromHy3(Blackhole bh) throws SdifException
+    {
+        for (SdifRec rec : hy3AthleteRecs) {
+            bh.consume(Athlete.fromHy3(rec));
+        }
+    }
+
+    @Benchmark
+    public Team teamFromSdifData()
+    {
+        return Team.fromSdifData(teamRec);
+    }
+
+    @Benchmark
+    public MeetInfo meetInfoFromSdif()
+    {
+        return MeetInfo.fromSdif(meetRec);
+    }
+
+
+    // The first NUM_ATHLETES records of a type
+    private SdifRec[] recs(List<String> lines, String code)
+    {
+        return lines.stream()
+                    .filter(line -> line.startsWith(code))
+                    .limit(NUM_ATHLETES)
+                    .map(SdifRec::new)
+                    .toArray(SdifRec[]::new);
+    }
+}
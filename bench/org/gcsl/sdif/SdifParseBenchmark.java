@@ -0,0 +1,94 @@
+package org.gcsl.sdif;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Benchmarks reading whole SDIF files and splitting them into records.  The files come from the
+// SdifGenerator:  CL2 is a dual meet's results, HY3 and SD3 are a team roster.
+//   readFile*         - SdifReader.readFile on a file on disk, per ReadMode
+//   createRecs        - SdifRec construction (record type lookup included) from the file's lines
+//   recTypeFromString - SdifRecType.fromString on the file's record codes
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SdifParseBenchmark
+{
+    @Param({"CL2", "HY3", "SD3"})
+    public String format;
+
+    @Param({"100", "1000", "10000"})
+    public int numAthletes;
+
+    private Path           dir;
+    private Path           sdifFile;
+    private List<String>   lines;
+    private CharSequence[] codes;
+
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException
+    {
+        SdifReader.SdifFileFormat fileFormat = SdifReader.SdifFileFormat.fromString(format);
+        if (fileFormat == SdifReader.SdifFileFormat.CL2) {
+            // a dual meet with numAthletes swimmers in 10 events, 10% no shows
+            lines = new SdifGenerator(2, numAthletes / 2, 10, 0.1, 1).resultRecords(0, 1, LocalDate.of(2019, 6, 17));
+        }
+        else {
+            lines = new SdifGenerator(1, numAthletes, 1, 0.0, 1).rosterRecords(0, fileFormat);
+        }
+
+        dir      = Files.createTempDirectory("sdif_bench");
+        sdifFile = SdifGenerator.writeRecords(dir.resolve("bench." + format.toLowerCase()), lines);
+
+        codes = new CharSequence[lines.size()];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = lines.get(i).substring(0, 2);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException
+    {
+        Files.deleteIfExists(sdifFile);
+        Files.deleteIfExists(dir);
+    }
+
+
+    @Benchmark
+    public List<SdifRec> readFileBuffered() throws SdifException
+    {
+        return new SdifReader(sdifFile.toString(), SdifReader.ReadMode.BUFFERED).readFile();
+    }
+
+    @Benchmark
+    public List<SdifRec> readFileMapped() throws SdifException
+    {
+        return new SdifReader(sdifFile.toString(), SdifReader.ReadMode.MAPPED).readFile();
+    }
+
+    @Benchmark
+    public void createRecs(Blackhole bh)
+    {
+        for (String line : lines) {
+            bh.consume(new SdifRec(line));
+        }
+    }
+
+    @Benchmark
+    public void recTypeFromString(Blackhole bh)
+    {
+        for (CharSequence code : codes) {
+            bh.consume(SdifRec.SdifRecType.fromString(code));
+        }
+    }
+}
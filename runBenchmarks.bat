@@ -0,0 +1,4 @@
+@echo off
+rem Run the JMH benchmarks in bench (built by IntelliJ into out\test), e.g.  runBenchmarks SdifParseBenchmark
+set CLASSPATH=libs\sqlite-jdbc-3.20.0.jar;lib\jmh-core-1.21.jar;lib\jopt-simple-4.6.jar;lib\commons-math3-3.2.jar;.\out\production\JGCSL;.\out\test\JGCSL
+java org.gcsl.GcslBenchmarks %*
@@ -0,0 +1,4 @@
+@echo off
+rem Run imports and reports without the GUI, e.g.  runGcslBatch results C:\Results MEET_RESULTS
+set CLASSPATH=libs\sqlite-jdbc-3.20.0.jar;.\out\production\JGCSL
+java org.gcsl.GcslBatch %*
@@ -0,0 +1,62 @@
+package org.gcsl;
+
+import org.gcsl.db.MeetCountDbo;
+import org.gcsl.model.Athlete;
+import org.gcsl.model.AthleteMeetCount;
+import org.gcsl.model.Team;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+
+// The champs eligibility of the entries of all the teams.  The entries of every team are checked
+// against the meet counts read by one DB query (MeetCountDbo.findByTeams):
+//   - an entry that is not on the team's DB roster is an orphan
+//   - an entry with fewer than MIN_MEETS meets is an exception
+// The teams must have their DB IDs set.
+class ChampsEligibility
+{
+    static final int MIN_MEETS = 3;
+
+    private final Map<Integer, List<Athlete>>          orphans    = new HashMap<>();
+    private final Map<Integer, List<AthleteMeetCount>> exceptions = new HashMap<>();
+
+
+    static ChampsEligibility check(Connection db, List<Team> teams) throws SQLException
+    {
+        ChampsEligibility eligibility = new ChampsEligibility();
+        Map<Athlete, AthleteMeetCount> meetCounts = MeetCountDbo.findByTeams(db, teams);
+
+        for (Team team : teams) {
+            List<Athlete>          teamOrphans    = new ArrayList<>();
+            List<AthleteMeetCount> teamExceptions = new ArrayList<>();
+
+            for (Athlete athlete : team.getAthletes()) {
+                AthleteMeetCount meetCount = meetCounts.get(athlete);
+                if (meetCount == null) {
+                    teamOrphans.add(athlete);
+                }
+                else if (meetCount.getMeetCount() < MIN_MEETS) {
+                    teamExceptions.add(meetCount);
+                }
+            }
+            eligibility.orphans.put(team.getId(), teamOrphans);
+            eligibility.exceptions.put(team.getId(), teamExceptions);
+        }
+
+        return eligibility;
+    }
+
+
+    // Entries of the team with fewer than MIN_MEETS meets.  The athletes have their DB IDs.
+    List<AthleteMeetCount> getExceptions(Team team)
+    {
+        return exceptions.getOrDefault(team.getId(), Collections.emptyList());
+    }
+
+    // Entries of the team that are not on the team's DB roster.
+    List<Athlete> getOrphans(Team team)
+    {
+        return orphans.getOrDefault(team.getId(), Collections.emptyList());
+    }
+}
@@ -0,0 +1,34 @@
+package org.gcsl;
+
+// A task that runs one piece of work against the shared DB connection, eg. a report or a
+// lookup the GUI needs before it can go on.  It is submitted to the DB lane, so the work never
+// uses the connection at the same time as an import.  The name is what TaskScheduler logs and
+// times the task under.
+public class DbWorkTask<V> extends GcslTask<V>
+{
+    interface DbWork<V>
+    {
+        V run() throws Exception;
+    }
+
+    private final String    name;
+    private final DbWork<V> work;
+
+
+    DbWorkTask(String name, DbWork<V> work)
+    {
+        this.name = name;
+        this.work = work;
+    }
+
+
+    @Override
+    String getName() { return name; }
+
+
+    @Override
+    protected V call() throws Exception
+    {
+        return work.run();
+    }
+}
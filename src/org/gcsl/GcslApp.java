@@ -14,9 +14,16 @@ import javafx.scene.layout.VBox;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import org.gcsl.db.DbBootstrap;
+import org.gcsl.db.DbCache;
+import org.gcsl.db.DbConfig;
 import org.gcsl.db.MeetDbo;
+import org.gcsl.db.StatementCache;
 import org.gcsl.db.TeamDbo;
 import org.gcsl.model.*;
+import org.gcsl.sdif.SdifReader;
+import org.gcsl.util.Metrics;
+import org.gcsl.util.Utils;
 import org.gcsl.view.*;
 
 import java.io.File;
@@ -27,10 +34,12 @@ import java.util.*;
 
 public class GcslApp extends Application
 {
-    private Properties        config;
-    private Connection        dbConn;
-    private GcslAppController gcslAppController;
-    private Stage             primaryStage;
+    private Properties          config;
+    private Connection          dbConn;
+    private GcslAppController   gcslAppController;
+    private Stage               primaryStage;
+    private SdifReader.ReadMode sd3ReadMode;
+    private TaskScheduler       taskScheduler;
 
     private class ChampsReportingInfo
     {
@@ -54,11 +63,26 @@ public class GcslApp extends Application
         initRootLayout();
         loadConfig();
         connectToDb();
+        taskScheduler = new TaskScheduler(Utils.getIntProperty(config, "task_threads", 2));
 
         primaryStage.show();
     }
 
 
+    @Override
+    public void stop() throws Exception
+    {
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+        if (dbConn != null) {
+            StatementCache.closeAll(dbConn);
+            dbConn.close();
+        }
+        super.stop();
+    }
+
+
     // ********************     Public Methods
     // Process the meet results in a particular directory.  This method will update the
     // Athlete-Meet table based on the results.  Orphan table entries may be created
@@ -109,14 +133,10 @@ public class GcslApp extends Application
         }
         else {
             Reports reports = new Reports(dbConn, reportsDir);
-            try {
+            runReportTask("MeetCountReport", "Meet Count Report", () -> {
                 reports.meetCountReport();
-                gcslAppController.setStatus("Meet count report created successfully.");
-            }
-            catch (Exception ex) {
-                System.err.println("Caught error creating meet count report file: " + ex.getMessage());
-                gcslAppController.setStatus("Error creating Meet Count Report ... ");
-            }
+                return null;
+            });
         }
     }
 
@@ -129,15 +149,10 @@ public class GcslApp extends Application
         }
         else {
             Reports reports = new Reports(dbConn, reportsDir);
-            try {
+            runReportTask("OrphanReport", "Orphan Report", () -> {
                 reports.orphanReport();
-                gcslAppController.setStatus("Orphan report created successfully.");
-            }
-            catch (IOException ex) {
-                System.err.println("Caught error creating orphan report file: " + ex.getMessage());
-                gcslAppController.setStatus("Error creating Orphan Report ... ");
-            }
-
+                return null;
+            });
         }
     }
 
@@ -154,32 +169,23 @@ public class GcslApp extends Application
     }
 
 
-    // Check the meet results to see if any of the meets exist already.
+    // Check the IDs of the held back meets that already exist in the DB.  The rest of the
+    // import has been written by then, which the dialog tells the user.
     // Return true if
     //                 1. none of the meets already exist
     //                 2. it is OK to update the existing meet results
-    // of false if the new meet results should not be procesed or there is an SQL error.
-    private boolean checkExistingResults(List<MeetResults> meetResults)
+    // of false if the new meet results should not be procesed.
+    private boolean checkExistingResults(List<Integer> existingMeetsIDs)
     {
-        List<Integer> existingMeetsIDs = new ArrayList<>();
-        boolean rc = false;
+        boolean rc;
 
-        try {
-            for (MeetResults meet : meetResults) {
-                Meet dbMeet = MeetDbo.findByTeams(dbConn, meet);
-                if (dbMeet != null) {
-                    existingMeetsIDs.add(dbMeet.getId());
-                }
-            }
-            if (existingMeetsIDs.size() == 0) {
-                rc = true;
-            }
-            else {
-                String message = "The following meets already exist: " + existingMeetsIDs.toString();
-                rc = showMeetExistsDialog(message);
-            }
-        } catch (SQLException e) {
-            System.err.println("SQL Error checking for meet existence: " + e.getMessage());
+        if (existingMeetsIDs.size() == 0) {
+            rc = true;
+        }
+        else {
+            String message = "The following meets already exist: " + existingMeetsIDs.toString() +
+                             ".  The other meets in this import have already been written to the DB";
+            rc = showMeetExistsDialog(message);
         }
 
         return rc;
@@ -194,6 +200,10 @@ public class GcslApp extends Application
 
         System.out.println("Connection to SQLite URL: " + url);
         dbConn = DriverManager.getConnection(url);
+        DbBootstrap.configure(dbConn, config);
+        DbConfig.setBatchSize(Utils.getIntProperty(config, "db_batch_size", DbConfig.getBatchSize()));
+        DbConfig.setCacheSize(Utils.getIntProperty(config, "db_cache_size", DbConfig.getCacheSize()));
+        DbCache.clear();
 
         gcslAppController.setStatus("Connected to Sqlite DB " + dbFile + ", version " + getDbVersion());
     }
@@ -255,6 +265,24 @@ public class GcslApp extends Application
         config = new Properties();
         config.load(new FileInputStream("jgcsl.properties"));
         System.out.println("Read properties file:  db at " + config.getProperty("db_file"));
+        // the GUI stays open, so SD3 files are only mapped when asked for
+        sd3ReadMode = SdifReader.ReadMode.fromString(config.getProperty("sd3_read_mode"), SdifReader.ReadMode.BUFFERED);
+
+        if (Boolean.parseBoolean(config.getProperty("metrics_to_file", "false").trim())) {
+            Metrics.setReportDir(new File(config.getProperty("reports_dir", ".").trim()));
+        }
+    }
+
+
+    // The OnFailure method of an import's DB task.  The read task is stopped, and the failure is
+    // reported unless it is the read task's own failure passed on through the import queue,
+    // which the read task has already reported.
+    private void onImportDbTaskFailure(Task readTask, Task dbTask)
+    {
+        readTask.cancel();
+        if (! (dbTask.getException() instanceof ImportQueue.ImportException)) {
+            onTaskFailure(dbTask);
+        }
     }
 
 
@@ -268,31 +296,21 @@ public class GcslApp extends Application
     }
 
 
-    // The task OnFailure method that puts the tasks' exception message onto the status line
-    // and rolls back the DB.
-    private void onTaskFailureWithRollback(Task task)
+    // Find the IDs of the meets in the DB that match the meet results.  Runs on the DB lane.
+    private List<Integer> findExistingMeetIds(List<MeetResults> meetResults) throws SQLException
     {
-        onTaskFailure(task);
-        try {
-            dbConn.rollback();
-            dbConn.setAutoCommit(true);
-        } catch (SQLException e1) {
-            System.out.println(e1.getMessage());
-        }
-    }
-
+        List<Integer> existingMeetsIDs = new ArrayList<>();
 
-    // Generic DB task success method that commits the DB and turns auto-commit back on.
-    private void onTaskSuccessCommit()
-    {
-        try {
-            dbConn.commit();
-            dbConn.setAutoCommit(true);
-        } catch (SQLException e) {
-            e.printStackTrace();
+        for (MeetResults meet : meetResults) {
+            Meet dbMeet = MeetDbo.findByTeams(dbConn, meet);
+            if (dbMeet != null) {
+                existingMeetsIDs.add(dbMeet.getId());
+            }
         }
+        return existingMeetsIDs;
     }
 
+
     // Go through the list of incoming MeetResults and "pair up" rain out
     // result entries.  The "paired up" results will be collapsed into a
     // single MeetResult with both teams.
@@ -316,45 +334,82 @@ public class GcslApp extends Application
 
 
     // Process a list of meet result files.  Meets and athlete results identified
-    // in the meet result files will be added to the DB.
+    // in the meet result files will be added to the DB.  Each meet is written to the DB as soon
+    // as its file is read.  Rain out entries and meets that are already in the DB are held back
+    // until all the files are read, then the user is asked about them.  By then the other meets
+    // are committed, so declining only skips the held back meets.
     private void processResultFiles(List<ProcessArchiveItem> resultFiles)
     {
         ReadResultFilesTask readResultFilesTask = new ReadResultFilesTask(resultFiles);
-        Label taskMessage = bindTaskMessageToStatus(readResultFilesTask);
-
-        readResultFilesTask.setOnSucceeded(event -> runResultsToDbTask(readResultFilesTask, taskMessage));
+        readResultFilesTask.setMaxThreads(Utils.getIntProperty(config, "archive_threads", 1));
+        readResultFilesTask.setSd3ReadMode(sd3ReadMode);
+
+        ImportQueue<MeetResults> importQueue = new ImportQueue<>(Utils.getIntProperty(config, "import_queue_size", 4),
+                                                                 readResultFilesTask.getNumItems());
+        readResultFilesTask.setSink(importQueue);
+        ResultsToDbTask dbTask = new ResultsToDbTask(dbConn, importQueue);
+        Label taskMessage = bindTaskMessageToStatus(dbTask);
+
+        // An archive that can't be read is skipped and counted in the DB task's failures.  If the
+        // read task stops as a whole, its error is passed to the DB task through the queue, which
+        // fails and rolls back.  The DB task commits the import itself.
         readResultFilesTask.setOnFailed(event -> onTaskFailure(readResultFilesTask));
+        dbTask.setOnSucceeded(event -> {
+            readResultFilesTask.cancel();
+            if (dbTask.getValue().size() > 0) {
+                runResultsToDbTask(dbTask.getValue(), taskMessage);
+            }
+        });
+        dbTask.setOnFailed(event -> onImportDbTaskFailure(readResultFilesTask, dbTask));
 
-        startTask(readResultFilesTask);
+        taskScheduler.submitDbTask(dbTask);
+        taskScheduler.submit(readResultFilesTask);
     }
 
 
     // Process a list of roster files.  Teams and athletes identified in the roster files will
-    // be added to the DB.
+    // be added to the DB.  Each team is written to the DB as soon as its file is read.
     private void processRosterFiles(List<ProcessArchiveItem> rosterFiles)
     {
         ReadRosterFilesTask readRosterFilesTask = new ReadRosterFilesTask(rosterFiles);
-        Label taskMessage = bindTaskMessageToStatus(readRosterFilesTask);
+        readRosterFilesTask.setMaxThreads(Utils.getIntProperty(config, "archive_threads", 1));
+        readRosterFilesTask.setSd3ReadMode(sd3ReadMode);
+
+        ImportQueue<Team> importQueue = new ImportQueue<>(Utils.getIntProperty(config, "import_queue_size", 4),
+                                                          readRosterFilesTask.getNumItems());
+        readRosterFilesTask.setSink(importQueue);
+        RostersToDbTask dbTask = new RostersToDbTask(dbConn, importQueue);
+        bindTaskMessageToStatus(dbTask);
 
-        readRosterFilesTask.setOnSucceeded(event -> runRostersToDbTask(readRosterFilesTask, taskMessage));
         readRosterFilesTask.setOnFailed(event -> onTaskFailure(readRosterFilesTask));
+        dbTask.setOnSucceeded(event -> readRosterFilesTask.cancel());
+        dbTask.setOnFailed(event -> onImportDbTaskFailure(readRosterFilesTask, dbTask));
 
-        startTask(readRosterFilesTask);
+        taskScheduler.submitDbTask(dbTask);
+        taskScheduler.submit(readRosterFilesTask);
     }
 
 
+    // Write the champs exception report for the teams read from the entry files.  The report
+    // queries the DB, so it runs on the DB lane.
     private void runChampsExceptionReport(ReadEntryFilesTask entryFilesTask, ChampsReportingInfo reportingInfo)
     {
-        List<Team> teams = new ArrayList<>();
-        Reports reports = new Reports(dbConn, new File(reportingInfo.reportsDir));
+        if (entryFilesTask.getNumFailedItems() > 0) {
+            // a team left out of the report would look like a team without exceptions
+            System.err.println("Caught error creating champs exception report file: " +
+                               entryFilesTask.getNumFailedItems() + " entry files could not be read.");
+            gcslAppController.setStatus("Error creating Champs Exception Report ... ");
+            return;
+        }
 
-        // Need to catch exceptions here because the task's onSuccess() method can't
-        // deal with exceptions.  (Produces compile error.)
-        try {
+        List<Team> entryTeams = entryFilesTask.getValue();
+        Reports    reports    = new Reports(dbConn, new File(reportingInfo.reportsDir));
+        runReportTask("ChampsExceptionReport", "Champs Exception Report", () -> {
             // Teams info read from entry files does not have team ID,
             // and consequently, none of the roster athletes do either.
             // So fix that!
-            for (Team team : entryFilesTask.getValue()) {
+            List<Team> teams = new ArrayList<>();
+            for (Team team : entryTeams) {
                 Team dbTeam = TeamDbo.findByCode(dbConn, team.getCode());
                 if (dbTeam == null) {
                     throw new Exception("Team: " + team.getCode() + " not found in the database.");
@@ -363,11 +418,8 @@ public class GcslApp extends Application
                 teams.add(team);
             }
             reports.champsExceptionReport(teams, reportingInfo.diveEntriesMap);
-        }
-        catch (Exception ex) {
-            System.err.println("Caught error creating champs exception report file: " + ex.getMessage());
-            gcslAppController.setStatus("Error creating Champs Exception Report ... ");
-        }
+            return null;
+        });
     }
 
 
@@ -379,6 +431,8 @@ public class GcslApp extends Application
             gcslAppController.setStatus("Champs Exception Report ... no entries selected.");
         }
         ReadEntryFilesTask readFilesTask = new ReadEntryFilesTask(entryFiles);
+        readFilesTask.setMaxThreads(Utils.getIntProperty(config, "archive_threads", 1));
+        readFilesTask.setSd3ReadMode(sd3ReadMode);
         Label taskMessage = bindTaskMessageToStatus(readFilesTask);
 
         readFilesTask.setOnSucceeded(event -> {
@@ -387,61 +441,57 @@ public class GcslApp extends Application
         });
         readFilesTask.setOnFailed(event -> onTaskFailure(readFilesTask));
 
-        startTask(readFilesTask);
+        taskScheduler.submit(readFilesTask);
     }
 
 
-    // Run a task to add the meet results to the DB.
-    private void runResultsToDbTask(ReadResultFilesTask task, Label taskMessage)
+    // Run a report that queries the DB as a task on the DB lane, and put its outcome on the
+    // status line.
+    private void runReportTask(String taskName, String reportTitle, DbWorkTask.DbWork<Void> report)
     {
-        List<MeetResults> meetResults = task.getValue();
-
-        // fix up the meet results so that rain out entries are combined
-        // into a single MeetResults entry
-        meetResults = pairRainOutEntries(meetResults);
-
-        if (! checkExistingResults(meetResults)) {
-            gcslAppController.setStatus("Process Meet Results cancelled.");
-        }
-        else {
-            ResultsToDbTask dbTask = new ResultsToDbTask(dbConn, meetResults);
-
-            try {
-                dbConn.setAutoCommit(false);  // for performance reasons
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+        DbWorkTask<Void> reportTask = new DbWorkTask<>(taskName, report);
 
-            dbTask.setOnSucceeded(event -> onTaskSuccessCommit() );
-            dbTask.setOnFailed(event -> onTaskFailureWithRollback(dbTask));
-
-            taskMessage.textProperty().unbind();
-            taskMessage.textProperty().bind(dbTask.messageProperty());
+        reportTask.setOnSucceeded(event -> gcslAppController.setStatus(reportTitle + " created successfully."));
+        reportTask.setOnFailed(event -> {
+            System.err.println("Caught error creating " + reportTitle + " file: " + reportTask.getException().getMessage());
+            gcslAppController.setStatus("Error creating " + reportTitle + " ... ");
+        });
 
-            startTask(dbTask);
-        }
+        gcslAppController.setStatus("Creating " + reportTitle + " ... ");
+        taskScheduler.submitDbTask(reportTask);
     }
 
 
-    // The task OnSuccess method that kicks off the task that adds the teams/rosters to the DB.
-    private void runRostersToDbTask(ReadRosterFilesTask task, Label taskMessage)
+    // Run a task to add the meet results held back by the import to the DB.  Which of the meets
+    // already exist is looked up on the DB lane, then the user is asked about replacing them.
+    private void runResultsToDbTask(List<MeetResults> meetResults, Label taskMessage)
     {
-        List<Team> teamsFromArchive = task.getValue();
-        RostersToDbTask dbTask = new RostersToDbTask(dbConn, teamsFromArchive);
+        // fix up the meet results so that rain out entries are combined
+        // into a single MeetResults entry
+        List<MeetResults> pairedResults = pairRainOutEntries(meetResults);
 
-        try {
-            dbConn.setAutoCommit(false);  // for performance reasons
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        DbWorkTask<List<Integer>> findTask = new DbWorkTask<>("FindExistingMeets",
+                                                              () -> findExistingMeetIds(pairedResults));
+        findTask.setOnSucceeded(event -> {
+            if (! checkExistingResults(findTask.getValue())) {
+                gcslAppController.setStatus("Replacing existing meets cancelled.  The other meets were imported.");
+            }
+            else {
+                ResultsToDbTask dbTask = new ResultsToDbTask(dbConn, pairedResults);
+                dbTask.setOnFailed(e -> onTaskFailure(dbTask));
 
-        dbTask.setOnSucceeded(event -> onTaskSuccessCommit() );
-        dbTask.setOnFailed(event -> onTaskFailureWithRollback(dbTask));
+                taskMessage.textProperty().unbind();
+                taskMessage.textProperty().bind(dbTask.messageProperty());
 
-        taskMessage.textProperty().unbind();
-        taskMessage.textProperty().bind(dbTask.messageProperty());
+                taskScheduler.submitDbTask(dbTask);
+            }
+        });
+        findTask.setOnFailed(event -> {
+            System.err.println("SQL Error checking for meet existence: " + findTask.getException().getMessage());
+            gcslAppController.setStatus("Replacing existing meets cancelled.  The other meets were imported.");
+        });
 
-        startTask(dbTask);
+        taskScheduler.submitDbTask(findTask);
     }
 
 
@@ -509,7 +559,7 @@ public class GcslApp extends Application
     {
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Meet Results Exist");
-        alert.setContentText(message + ".  Do you want to continue?");
+        alert.setContentText(message + ".  Do you want to replace the results of the existing meets?");
 
         Optional<ButtonType> result = alert.showAndWait();
         return (result.get() == ButtonType.OK);
@@ -613,12 +663,4 @@ public class GcslApp extends Application
 
         return updatedMeetResults;
     }
-
-
-    private void startTask(Task task)
-    {
-        Thread backgroundThread = new Thread(task);
-        backgroundThread.setDaemon(true);
-        backgroundThread.start();
-    }
 }
@@ -0,0 +1,385 @@
+package org.gcsl;
+
+import org.gcsl.db.DbBootstrap;
+import org.gcsl.db.DbCache;
+import org.gcsl.db.DbConfig;
+import org.gcsl.db.StatementCache;
+import org.gcsl.db.TeamDbo;
+import org.gcsl.model.*;
+import org.gcsl.sdif.SdifReader;
+import org.gcsl.util.Metrics;
+import org.gcsl.util.Utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.*;
+
+// Headless entry point for running imports and reports without the JavaFX GUI, e.g. from cron.
+// It uses the same tasks as GcslApp, running them on plain threads with their messages printed
+// to stdout.  Choices GcslApp asks the user about are made by command line options instead:
+//   - meets already in the DB are only replaced with -replace, otherwise they are skipped
+//   - rain out entries can't be paired up without the dialog, so they are always skipped
+//   - the champs report has no dive entries, so the dive sections report NONE
+// The exit status is 0 on success, 1 if the command failed or skipped or failed any items,
+// and 2 for a usage error.
+public class GcslBatch
+{
+    private static final int EXIT_OK      = 0;
+    private static final int EXIT_FAILURE = 1;
+    private static final int EXIT_USAGE   = 2;
+
+    private static final String USAGE =
+        "usage: GcslBatch [-config <file>] [-db <file>] <command> [<args>]\n" +
+        "commands:\n" +
+        "  rosters [<dir>]                       import the roster archives in dir (default rosters_dir)\n" +
+        "  results [<dir>] [<scenario>] [-replace]\n" +
+        "                                        import the result archives in dir (default results_dir).\n" +
+        "                                        scenario is MEET_RESULTS (default), BYE_WEEK_RESULTS, ...\n" +
+        "                                        -replace replaces the results of meets already in the DB\n" +
+        "  report meet-count|orphans [<dir>]     write a report to dir (default reports_dir)\n" +
+        "  report champs [<dir>] [-entries <dir>]\n" +
+        "                                        write the champs exception report for the entry\n" +
+        "                                        archives in -entries (default entries_dir)\n";
+
+    private Properties          config;
+    private Connection          dbConn;
+    private boolean             replaceExisting = false;
+    private SdifReader.ReadMode sd3ReadMode;
+
+
+    public static void main(String[] args)
+    {
+        System.exit(new GcslBatch().run(args));
+    }
+
+
+    // Run the command line and return the exit status.
+    int run(String[] args)
+    {
+        List<String> params     = new ArrayList<>();
+        String       configFile = "jgcsl.properties";
+        String       dbFile     = null;
+        String       entriesDir = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-config":
+                case "-db":
+                case "-entries":
+                    if (i + 1 == args.length) {
+                        return usage("missing value for " + args[i]);
+                    }
+                    if (args[i].equals("-config"))  { configFile = args[++i]; }
+                    else if (args[i].equals("-db")) { dbFile     = args[++i]; }
+                    else                            { entriesDir = args[++i]; }
+                    break;
+                case "-replace":
+                    replaceExisting = true;
+                    break;
+                default:
+                    if (args[i].startsWith("-")) {
+                        return usage("unknown option " + args[i]);
+                    }
+                    params.add(args[i]);
+            }
+        }
+        if (params.isEmpty()) {
+            return usage("missing command");
+        }
+
+        long startTime = System.nanoTime();
+        int  rc;
+        try {
+            loadConfig(configFile);
+            if (dbFile != null)     { config.setProperty("db_file", dbFile); }
+            if (entriesDir != null) { config.setProperty("entries_dir", entriesDir); }
+
+            String command = params.get(0);
+            List<String> commandArgs = params.subList(1, params.size());
+            switch (command) {
+                case "rosters":
+                    if (commandArgs.size() > 1) { return usage("too many arguments for rosters"); }
+                    connectToDb();
+                    rc = importRosters(getDirectory(commandArgs, 0, "rosters_dir"));
+                    break;
+                case "results":
+                    if (commandArgs.size() > 2) { return usage("too many arguments for results"); }
+                    ProcessArchiveItem.Scenario scenario = ProcessArchiveItem.Scenario.MEET_RESULTS;
+                    if (commandArgs.size() == 2) {
+                        try {
+                            scenario = ProcessArchiveItem.Scenario.valueOf(commandArgs.get(1).toUpperCase());
+                        }
+                        catch (IllegalArgumentException e) {
+                            return usage("unknown scenario " + commandArgs.get(1));
+                        }
+                    }
+                    connectToDb();
+                    rc = importResults(getDirectory(commandArgs, 0, "results_dir"), scenario);
+                    break;
+                case "report":
+                    if (commandArgs.isEmpty() || commandArgs.size() > 2) { return usage("expected report type [<dir>]"); }
+                    String reportType = commandArgs.get(0);
+                    if (! Arrays.asList("meet-count", "orphans", "champs").contains(reportType)) {
+                        return usage("unknown report type " + reportType);
+                    }
+                    connectToDb();
+                    rc = runReport(reportType, getDirectory(commandArgs, 1, "reports_dir"));
+                    break;
+                default:
+                    return usage("unknown command " + command);
+            }
+        }
+        catch (Exception e) {
+            System.err.println("GcslBatch failed: " + e);
+            e.printStackTrace();
+            rc = EXIT_FAILURE;
+        }
+        finally {
+            closeDb();
+            Metrics.dump("GcslBatch " + params.get(0));
+        }
+
+        System.out.printf("GcslBatch done in %d ms, exit status %d. %n", elapsedMs(startTime), rc);
+        return rc;
+    }
+
+
+    // ********************     Private Methods
+    // Create the archive items for all the ZIP and SD3 files in a directory.
+    private List<ProcessArchiveItem> archiveItems(File dir, ProcessArchiveItem.Scenario scenario) throws IOException
+    {
+        if (! dir.isDirectory()) {
+            throw new IOException("Not a directory: " + dir.getPath());
+        }
+
+        List<ProcessArchiveItem> items = new ArrayList<>();
+        for (File file : Utils.getFilesFromDirectory(dir, Arrays.asList(".sd3", ".zip"))) {
+            String contents = String.join(", ", Utils.getFileNamesFromArchive(file));
+            items.add(new ProcessArchiveItem(file.getPath(), contents, true, scenario));
+        }
+        System.out.printf("Found %d archive files in %s %n", items.size(), dir.getPath());
+        return items;
+    }
+
+
+    private void closeDb()
+    {
+        if (dbConn != null) {
+            try {
+                StatementCache.closeAll(dbConn);
+                dbConn.close();
+            }
+            catch (SQLException e) {
+                System.err.println("Error closing the DB: " + e.getMessage());
+            }
+            dbConn = null;
+        }
+    }
+
+
+    // Connect to the SQLite database, the same way as GcslApp
+    private void connectToDb() throws SQLException
+    {
+        String url = "jdbc:sqlite:" + config.getProperty("db_file");
+
+        System.out.println("Connection to SQLite URL: " + url);
+        dbConn = DriverManager.getConnection(url);
+        DbBootstrap.configure(dbConn, config);
+        DbConfig.setBatchSize(Utils.getIntProperty(config, "db_batch_size", DbConfig.getBatchSize()));
+        DbConfig.setCacheSize(Utils.getIntProperty(config, "db_cache_size", DbConfig.getCacheSize()));
+        DbCache.clear();
+    }
+
+
+    private long elapsedMs(long startTime)
+    {
+        return (System.nanoTime() - startTime) / 1_000_000;
+    }
+
+
+    // Get the directory given as commandArgs[index], or the directory in the property if the
+    // argument is missing.
+    private File getDirectory(List<String> commandArgs, int index, String property) throws IOException
+    {
+        String dir = (index < commandArgs.size() ? commandArgs.get(index) : config.getProperty(property));
+        if (dir == null) {
+            throw new IOException("No directory given and no " + property + " property set.");
+        }
+        return new File(dir.trim());
+    }
+
+
+    // Import the meet results in a directory.  As in GcslApp, the files are read on one thread
+    // while the meets are written on this one.  The meets that GcslApp would ask the user about
+    // are written afterwards when -replace is given (existing meets), or skipped.
+    private int importResults(File dir, ProcessArchiveItem.Scenario scenario) throws Exception
+    {
+        ReadResultFilesTask readTask = new ReadResultFilesTask(archiveItems(dir, scenario));
+        readTask.setMaxThreads(Utils.getIntProperty(config, "archive_threads", 1));
+        readTask.setSd3ReadMode(sd3ReadMode);
+
+        ImportQueue<MeetResults> importQueue = new ImportQueue<>(Utils.getIntProperty(config, "import_queue_size", 4),
+                                                                 readTask.getNumItems());
+        readTask.setSink(importQueue);
+        ResultsToDbTask dbTask = new ResultsToDbTask(dbConn, importQueue);
+
+        List<MeetResults> deferredMeets = runImport(readTask, dbTask);
+        int numFailed  = dbTask.getNumFailed();
+        int numSkipped = 0;
+
+        List<MeetResults> replaceMeets = new ArrayList<>();
+        for (MeetResults meet : deferredMeets) {
+            if (meet.getResultsScenario() == ProcessArchiveItem.Scenario.RAIN_OUT_ENTRIES) {
+                System.err.println("Skipping rain out entries for meet " + meet.getName() +
+                                   ", they must be paired up in the GUI.");
+                numSkipped++;
+            }
+            else if (replaceExisting) {
+                replaceMeets.add(meet);
+            }
+            else {
+                System.err.println("Skipping meet " + meet.getName() + ", it is already in the DB (use -replace).");
+                numSkipped++;
+            }
+        }
+
+        if (! replaceMeets.isEmpty()) {
+            long startTime = System.nanoTime();
+            ResultsToDbTask replaceTask = new ResultsToDbTask(dbConn, replaceMeets);
+            replaceTask.runHeadless();
+            numFailed += replaceTask.getNumFailed();
+            System.out.printf("Replaced %d existing meets in %d ms. %n", replaceMeets.size(), elapsedMs(startTime));
+        }
+
+        System.out.printf("Results import:  %d archives, %d failed, %d skipped. %n",
+                          readTask.getNumItems(), numFailed, numSkipped);
+        return (numFailed == 0 && numSkipped == 0 ? EXIT_OK : EXIT_FAILURE);
+    }
+
+
+    // Import the rosters in a directory
+    private int importRosters(File dir) throws Exception
+    {
+        ReadRosterFilesTask readTask = new ReadRosterFilesTask(archiveItems(dir, ProcessArchiveItem.Scenario.TEAM_ROSTER));
+        readTask.setMaxThreads(Utils.getIntProperty(config, "archive_threads", 1));
+        readTask.setSd3ReadMode(sd3ReadMode);
+
+        ImportQueue<Team> importQueue = new ImportQueue<>(Utils.getIntProperty(config, "import_queue_size", 4),
+                                                          readTask.getNumItems());
+        readTask.setSink(importQueue);
+        RostersToDbTask dbTask = new RostersToDbTask(dbConn, importQueue);
+
+        runImport(readTask, dbTask);
+
+        System.out.printf("Roster import:  %d archives, %d failed. %n", readTask.getNumItems(), dbTask.getNumFailed());
+        return (dbTask.getNumFailed() == 0 ? EXIT_OK : EXIT_FAILURE);
+    }
+
+
+    private void loadConfig(String configFile) throws IOException
+    {
+        config = new Properties();
+        try (FileInputStream in = new FileInputStream(configFile)) {
+            config.load(in);
+        }
+        System.out.println("Read properties file " + configFile + ":  db at " + config.getProperty("db_file"));
+        // a batch run ends soon after the import, which releases the SD3 files it mapped
+        sd3ReadMode = SdifReader.ReadMode.fromString(config.getProperty("sd3_read_mode"), SdifReader.ReadMode.MAPPED);
+
+        if (Boolean.parseBoolean(config.getProperty("metrics_to_file", "false").trim())) {
+            Metrics.setReportDir(new File(config.getProperty("reports_dir", ".").trim()));
+        }
+    }
+
+
+    // Read the entry archives and write the champs exception report.  There is no dialog to
+    // enter the dive entries, so every team gets an empty dive entry list.
+    private void runChampsReport(Reports reports) throws Exception
+    {
+        File entriesDir = getDirectory(Collections.emptyList(), 0, "entries_dir");
+        ReadEntryFilesTask entryFilesTask = new ReadEntryFilesTask(archiveItems(entriesDir,
+                                                                                ProcessArchiveItem.Scenario.TEAM_ROSTER));
+        entryFilesTask.setMaxThreads(Utils.getIntProperty(config, "archive_threads", 1));
+        entryFilesTask.setSd3ReadMode(sd3ReadMode);
+
+        List<Team> teams      = new ArrayList<>();
+        List<Team> entryTeams = entryFilesTask.runHeadless();
+        if (entryFilesTask.getNumFailedItems() > 0) {
+            // a team left out of the report would look like a team without exceptions
+            throw new Exception(entryFilesTask.getNumFailedItems() + " entry files could not be read.");
+        }
+        for (Team team : entryTeams) {
+            Team dbTeam = TeamDbo.findByCode(dbConn, team.getCode());
+            if (dbTeam == null) {
+                throw new Exception("Team: " + team.getCode() + " not found in the database.");
+            }
+            team.setId(dbTeam.getId());
+            teams.add(team);
+        }
+        reports.champsExceptionReport(teams, new HashMap<>());
+    }
+
+
+    // Run an import:  the read task runs on its own thread and hands its results to the DB task,
+    // which runs on this thread.  Returns the DB task's result.
+    private <T, V> V runImport(ReadSdifArchiveTask<T> readTask, GcslTask<V> dbTask) throws Exception
+    {
+        long   startTime = System.nanoTime();
+        long[] readMs    = new long[1];
+
+        Thread reader = new Thread(() -> {
+            try {
+                readTask.runHeadless();
+            }
+            catch (Exception e) {
+                // the error is passed on to the DB task through the import queue and reported
+                // when the DB task fails
+            }
+            readMs[0] = elapsedMs(startTime);
+        }, "gcsl-batch-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        V result;
+        try {
+            result = dbTask.runHeadless();
+        }
+        catch (Exception e) {
+            reader.interrupt();
+            throw e;
+        }
+        reader.join();
+
+        System.out.printf("Import timing:  %d items, read %d ms, read+write %d ms. %n",
+                          readTask.getNumItems(), readMs[0], elapsedMs(startTime));
+        return result;
+    }
+
+
+    private int runReport(String reportType, File reportsDir) throws Exception
+    {
+        long    startTime = System.nanoTime();
+        Reports reports   = new Reports(dbConn, reportsDir);
+
+        switch (reportType) {
+            case "meet-count":  reports.meetCountReport();    break;
+            case "orphans":     reports.orphanReport();       break;
+            case "champs":      runChampsReport(reports);     break;
+        }
+
+        System.out.printf("Report %s written to %s in %d ms. %n", reportType, reportsDir.getPath(), elapsedMs(startTime));
+        return EXIT_OK;
+    }
+
+
+    private int usage(String error)
+    {
+        System.err.println("GcslBatch: " + error);
+        System.err.print(USAGE);
+        return EXIT_USAGE;
+    }
+}
@@ -0,0 +1,54 @@
+package org.gcsl;
+
+import javafx.concurrent.Task;
+
+// Base class for the GCSL background tasks.  A Task publishes its message and progress on the
+// JavaFX application thread, which needs a running FX toolkit.  A headless task (run by
+// GcslBatch without a toolkit) prints its messages to stdout and drops its progress instead.
+public abstract class GcslTask<V> extends Task<V>
+{
+    private volatile boolean headless = false;
+
+
+    // Run the task on the calling thread without a JavaFX toolkit and return its result.
+    // The task's state and value properties are not updated, the result is only returned.
+    V runHeadless() throws Exception
+    {
+        headless = true;
+        return call();
+    }
+
+
+    // The name the task is logged and timed under by TaskScheduler.
+    String getName() { return getClass().getSimpleName(); }
+
+
+    @Override
+    protected void updateMessage(String message)
+    {
+        if (headless) {
+            System.out.println(message);
+        }
+        else {
+            super.updateMessage(message);
+        }
+    }
+
+
+    @Override
+    protected void updateProgress(long workDone, long max)
+    {
+        if (! headless) {
+            super.updateProgress(workDone, max);
+        }
+    }
+
+
+    @Override
+    protected void updateProgress(double workDone, double max)
+    {
+        if (! headless) {
+            super.updateProgress(workDone, max);
+        }
+    }
+}
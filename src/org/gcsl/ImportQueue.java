@@ -0,0 +1,108 @@
+package org.gcsl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// A bounded hand-off between the task that reads archive files and the task that writes the
+// results to the DB.  The reader put()s each result as soon as it is read and calls close() when
+// it is done; the writer take()s results until take() returns null.  When the queue is full the
+// reader waits, so at most capacity results are held in memory between the two stages.
+// An item the reader can't read is skipped and counted with itemFailed(), and the writer adds
+// getNumFailedItems() to its own failures.  close(error) is only for a reader that stops as a
+// whole (cancelled, or an unexpected error):  the writer's next take() throws the reader's error.
+// close() never blocks, so a reader that is cancelled while the writer is gone still ends:  on
+// an error the queued items are dropped, and if the end marker doesn't fit in a full queue the
+// writer finds the queue closed once it has taken the remaining items.
+class ImportQueue<T>
+{
+    private static final Object END_MARKER    = new Object();
+    private static final long   CLOSED_POLL_MS = 100;
+
+    private final BlockingQueue<Object> queue;
+    private final int                   expectedItems;
+    private final AtomicInteger         numFailedItems = new AtomicInteger(0);
+    private volatile boolean            closed = false;
+    private volatile Throwable          readError;
+
+
+    ImportQueue(int capacity, int expectedItems)
+    {
+        this.queue         = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.expectedItems = expectedItems;
+    }
+
+
+    // The number of items the reader is expected to produce, used for progress reporting.
+    int getExpectedItems() { return expectedItems; }
+
+    // The number of items the reader skipped because they could not be read.
+    int getNumFailedItems() { return numFailedItems.get(); }
+
+
+    // Count an item the reader could not read.  Nothing is put for it.
+    void itemFailed()
+    {
+        numFailedItems.incrementAndGet();
+    }
+
+
+    void put(T item) throws InterruptedException
+    {
+        queue.put(item);
+    }
+
+
+    // Signal the end of the items.  If error is not null, the reader failed (or was cancelled)
+    // and the items still queued are dropped because the writer will stop at the error.
+    void close(Throwable error)
+    {
+        readError = error;
+        if (error != null) {
+            queue.clear();
+        }
+        closed = true;
+        queue.offer(END_MARKER);
+    }
+
+
+    // Wait for the next item.  Returns null when the reader has closed the queue.
+    // Throws an ImportException wrapping the reader's error if the reader failed.
+    @SuppressWarnings("unchecked")
+    T take() throws InterruptedException, ImportException
+    {
+        Object item = queue.poll(CLOSED_POLL_MS, TimeUnit.MILLISECONDS);
+        while (item == null) {
+            if (closed) {
+                // nothing more is put once closed, so an empty queue is the end
+                item = queue.poll();
+                if (item == null)  { item = END_MARKER; }
+            }
+            else {
+                item = queue.poll(CLOSED_POLL_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        if (item == END_MARKER) {
+            queue.offer(END_MARKER);   // later take() calls also see the end
+            if (readError != null) {
+                throw new ImportException(readError);
+            }
+            return null;
+        }
+        return (T) item;
+    }
+
+
+    // Thrown to the writer when the reader failed
+    static class ImportException extends Exception
+    {
+        private static final long serialVersionUID = 1L;
+
+        ImportException(Throwable cause)
+        {
+            super("Reading the archive files failed: " + cause.getMessage(), cause);
+        }
+    }
+}
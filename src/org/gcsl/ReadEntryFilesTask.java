@@ -11,8 +11,7 @@ import org.gcsl.util.Utils;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,9 +29,7 @@ public class ReadEntryFilesTask extends ReadSdifArchiveTask<Team>
     @Override
     Team processArchiveItem(ProcessArchiveItem archiveItem) throws SdifException, IOException
     {
-        String  archiveFilePath  = archiveItem.getDirectory() + File.separator + archiveItem.getName();
-        String  rosterFilePath   = extractSdifFileFromArchive(archiveItem);
-        boolean rosterFileIsTemp = ! archiveFilePath.equals(rosterFilePath);  // not equal means is a temp file
+        String archiveFilePath = archiveItem.getDirectory() + File.separator + archiveItem.getName();
 
         Utils.ARCHIVE_FILE_TYPE archiveFileType  = Utils.getArchiveFileType(archiveFilePath);
         SdifFileDescription.SdifFileType rosterFileTypeExpected;
@@ -42,20 +39,13 @@ public class ReadEntryFilesTask extends ReadSdifArchiveTask<Team>
             default:   throw new SdifException("Unknown roster file archive.  Filepath=" + archiveFilePath);
         }
 
-        Team team;
-        try {
-            team = readEntryFile(rosterFilePath, rosterFileTypeExpected);
+        try (SdifReader sdifReader = openSdifReader(archiveItem)) {
+            return readEntryFile(sdifReader, rosterFileTypeExpected);
         }
-        finally {
-            if (rosterFileIsTemp) {
-                Files.deleteIfExists(Paths.get(rosterFilePath));
-            }
-        }
-        return team;
     }
 
 
-    private Optional<Team> processEntryRecs(List<SdifRec> rosterRecs,
+    private Optional<Team> processEntryRecs(Iterable<SdifRec> rosterRecs,
                                             SdifReader.SdifFileFormat fileFormat) throws SdifException
     {
         Optional<Team> optTeam = Optional.empty();
@@ -101,18 +91,23 @@ public class ReadEntryFilesTask extends ReadSdifArchiveTask<Team>
 
     // Read a entry file (CL2, HY3 or SD3) and create a Team object from the entry file data.
     // Throw an SdifException if the roster file is not valid.
-    private Team readEntryFile(String rosterFilePath, SdifFileDescription.SdifFileType fileTypeExpected) throws SdifException
+    private Team readEntryFile(SdifReader sdifReader, SdifFileDescription.SdifFileType fileTypeExpected) throws SdifException
     {
-        SdifReader sdifReader = new SdifReader(rosterFilePath);
-        SdifFileDescription.SdifFileType fileType = sdifReader.getFileDescription().getFileType();
-        SdifReader.SdifFileFormat fileFormat = sdifReader.getFileFormat();
+        Optional<Team> team;
 
-        if (fileType != fileTypeExpected) {
-            throw new SdifException("File type mismatch, expected " + fileTypeExpected + ", found " + fileType);
-        }
+        try {
+            SdifFileDescription.SdifFileType fileType = sdifReader.getFileDescription().getFileType();
+            SdifReader.SdifFileFormat fileFormat = sdifReader.getFileFormat();
+
+            if (fileType != fileTypeExpected) {
+                throw new SdifException("File type mismatch, expected " + fileTypeExpected + ", found " + fileType);
+            }
 
-        List<SdifRec>  recs = sdifReader.readFile();
-        Optional<Team> team = processEntryRecs(recs, fileFormat);
+            team = processEntryRecs(sdifReader, fileFormat);
+        }
+        catch (UncheckedIOException e) {
+            throw new SdifException(e.getCause());
+        }
 
         return team.orElseThrow( () -> new SdifException("No team defined in the SDIF file.") );
     }
@@ -6,10 +6,8 @@ import org.gcsl.sdif.SdifFileDescription;
 import org.gcsl.sdif.SdifReader;
 import org.gcsl.sdif.SdifRec;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,23 +26,12 @@ class ReadResultFilesTask extends ReadSdifArchiveTask<MeetResults>
     @Override
     MeetResults processArchiveItem(ProcessArchiveItem archiveItem) throws SdifException, IOException
     {
-        String  archiveFilePath  = archiveItem.getDirectory() + File.separator + archiveItem.getName();
-        String  resultFilePath   = extractSdifFileFromArchive(archiveItem);
-        boolean resultFileIsTemp = ! archiveFilePath.equals(resultFilePath);  // not equal means is a temp file
-
-        MeetResults meetResults;
-        try {
-            meetResults = readResultFile(resultFilePath, archiveItem.getScenarioType());
+        try (SdifReader sdifReader = openSdifReader(archiveItem)) {
+            return readResultFile(sdifReader, archiveItem.getScenarioType());
         }
-        finally {
-            if (resultFileIsTemp) {
-                Files.deleteIfExists(Paths.get(resultFilePath));
-            }
-        }
-        return meetResults;
     }
 
-    private Optional<MeetResults> processMeetEntries(List<SdifRec> entryRecs,
+    private Optional<MeetResults> processMeetEntries(Iterable<SdifRec> entryRecs,
                                                      ProcessArchiveItem.Scenario scenario,
                                                      SdifReader.SdifFileFormat fileFormat) throws SdifException
     {
@@ -97,7 +84,7 @@ class ReadResultFilesTask extends ReadSdifArchiveTask<MeetResults>
     //        Pretty much everything is the same.  Meet results do a little extra checking for No Shows, but
     //        that shouldn't matter.
 
-    private Optional<MeetResults> processMeetResults(List<SdifRec> resultRecs,
+    private Optional<MeetResults> processMeetResults(Iterable<SdifRec> resultRecs,
                                                      ProcessArchiveItem.Scenario resultScenario) throws SdifException
     {
         Optional<MeetResults> optResults = Optional.empty();
@@ -154,7 +141,7 @@ class ReadResultFilesTask extends ReadSdifArchiveTask<MeetResults>
 
     // Read a result file (CL2, HY3 or SD3) and create a Meet object representing the results of the meet.
     // Throw an SdifException if the result file is not valid.
-    private MeetResults readResultFile(String resultFilePath,
+    private MeetResults readResultFile(SdifReader sdifReader,
                                        ProcessArchiveItem.Scenario scenario) throws SdifException
     {
         SdifFileDescription.SdifFileType fileTypeExpected;
@@ -169,26 +156,31 @@ class ReadResultFilesTask extends ReadSdifArchiveTask<MeetResults>
             default:               { throw new RuntimeException("Invalid meet results scenario."); }
         }
 
-        SdifReader sdifReader = new SdifReader(resultFilePath);
-        SdifReader.SdifFileFormat fileFormat = sdifReader.getFileFormat();
+        // The records are streamed from the reader, so the file is never held in memory as a whole.
+        try {
+            SdifReader.SdifFileFormat fileFormat = sdifReader.getFileFormat();
 
-        List<SdifRec> sdifRecs = readResultFile(sdifReader, fileTypeExpected);
-        if (scenario == ProcessArchiveItem.Scenario.BYE_WEEK_ENTRIES
-        ||  scenario == ProcessArchiveItem.Scenario.RAIN_OUT_ENTRIES) {
-            results = processMeetEntries(sdifRecs, scenario, fileFormat);
+            Iterable<SdifRec> sdifRecs = readResultFile(sdifReader, fileTypeExpected);
+            if (scenario == ProcessArchiveItem.Scenario.BYE_WEEK_ENTRIES
+            ||  scenario == ProcessArchiveItem.Scenario.RAIN_OUT_ENTRIES) {
+                results = processMeetEntries(sdifRecs, scenario, fileFormat);
+            }
+            else {
+                results = processMeetResults(sdifRecs, scenario);
+            }
+
+            results.orElseThrow( () -> new SdifException("No results defined in the SDIF file.") )
+                   .setResultFileDate(sdifReader.getFileDescription().getFileDate());
         }
-        else {
-            results = processMeetResults(sdifRecs, scenario);
+        catch (UncheckedIOException e) {
+            throw new SdifException(e.getCause());
         }
 
-        results.orElseThrow( () -> new SdifException("No results defined in the SDIF file.") )
-               .setResultFileDate(sdifReader.getFileDescription().getFileDate());
-
         return results.get();
     }
 
 
-    private List<SdifRec> readResultFile(SdifReader reader, SdifFileDescription.SdifFileType expectedSdifType) throws SdifException
+    private Iterable<SdifRec> readResultFile(SdifReader reader, SdifFileDescription.SdifFileType expectedSdifType) throws SdifException
     {
         SdifFileDescription.SdifFileType actualSdifType = reader.getFileDescription().getFileType();
 
@@ -200,6 +192,6 @@ class ReadResultFilesTask extends ReadSdifArchiveTask<MeetResults>
                                     ", expected type of " + expectedSdifType);
         }
 
-        return reader.readFile();
+        return reader;
     }
 }
@@ -11,8 +11,7 @@ import org.gcsl.util.Utils;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,9 +31,7 @@ class ReadRosterFilesTask extends ReadSdifArchiveTask<Team>
     @Override
     Team processArchiveItem(ProcessArchiveItem archiveItem) throws SdifException, IOException
     {
-        String  archiveFilePath  = archiveItem.getDirectory() + File.separator + archiveItem.getName();
-        String  rosterFilePath   = extractSdifFileFromArchive(archiveItem);
-        boolean rosterFileIsTemp = ! archiveFilePath.equals(rosterFilePath);  // not equal means is a temp file
+        String archiveFilePath = archiveItem.getDirectory() + File.separator + archiveItem.getName();
 
         Utils.ARCHIVE_FILE_TYPE archiveFileType  = Utils.getArchiveFileType(archiveFilePath);
         SdifFileDescription.SdifFileType rosterFileTypeExpected;
@@ -44,20 +41,13 @@ class ReadRosterFilesTask extends ReadSdifArchiveTask<Team>
             default:   throw new SdifException("Unknown roster file archive.  Filepath=" + archiveFilePath);
         }
 
-        Team team;
-        try {
-            team = readRosterFile(rosterFilePath, rosterFileTypeExpected);
+        try (SdifReader sdifReader = openSdifReader(archiveItem)) {
+            return readRosterFile(sdifReader, rosterFileTypeExpected);
         }
-        finally {
-            if (rosterFileIsTemp) {
-                Files.deleteIfExists(Paths.get(rosterFilePath));
-            }
-        }
-        return team;
     }
 
 
-    private Optional<Team> processRosterRecs(List<SdifRec> rosterRecs, SdifReader.SdifFileFormat fileFormat) throws SdifException
+    private Optional<Team> processRosterRecs(Iterable<SdifRec> rosterRecs, SdifReader.SdifFileFormat fileFormat) throws SdifException
     {
         Optional<Team> optTeam = Optional.empty();
         Team team;
@@ -103,18 +93,24 @@ class ReadRosterFilesTask extends ReadSdifArchiveTask<Team>
 
     // Read a roster file (CL2, HY3 or SD3) and create a Team object from the roster file data.
     // Throw an SdifException if the roster file is not valid.
-    private Team readRosterFile(String rosterFilePath, SdifFileDescription.SdifFileType fileTypeExpected) throws SdifException
+    private Team readRosterFile(SdifReader sdifReader, SdifFileDescription.SdifFileType fileTypeExpected) throws SdifException
     {
-        SdifReader sdifReader = new SdifReader(rosterFilePath);
-        SdifReader.SdifFileFormat fileFormat = sdifReader.getFileFormat();
-        SdifFileDescription.SdifFileType fileType = sdifReader.getFileDescription().getFileType();
+        Optional<Team> team;
 
-        if (fileType != fileTypeExpected) {
-            throw new SdifException("File type mismatch, expected " + fileTypeExpected + ", found " + fileType);
-        }
+        // records are processed as they are read from the file
+        try {
+            SdifReader.SdifFileFormat fileFormat = sdifReader.getFileFormat();
+            SdifFileDescription.SdifFileType fileType = sdifReader.getFileDescription().getFileType();
+
+            if (fileType != fileTypeExpected) {
+                throw new SdifException("File type mismatch, expected " + fileTypeExpected + ", found " + fileType);
+            }
 
-        List<SdifRec>  recs = sdifReader.readFile();
-        Optional<Team> team = processRosterRecs(recs, fileFormat);
+            team = processRosterRecs(sdifReader, fileFormat);
+        }
+        catch (UncheckedIOException e) {
+            throw new SdifException(e.getCause());
+        }
 
         return team.orElseThrow( () -> new SdifException("No team defined in the SDIF file.") );
     }
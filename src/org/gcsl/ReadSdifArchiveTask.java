@@ -1,21 +1,38 @@
 package org.gcsl;
 
-import javafx.concurrent.Task;
 import org.gcsl.model.ProcessArchiveItem;
 import org.gcsl.sdif.SdifException;
+import org.gcsl.sdif.SdifReader;
+import org.gcsl.util.Metrics;
 import org.gcsl.util.Utils;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 // Abstract class for reading a list of SDIF archive files (ZIP or SD3) and producing
 // a set of result files (List<T>) in a separate task.
 // When deriving from this class, the processArchiveItem method must be implemented.
-public abstract class ReadSdifArchiveTask<T> extends Task<List<T>>
+// Archive items are independent of each other, so they may be processed in parallel.  The
+// processArchiveItem implementation must not share mutable state between calls.
+// Each processArchiveItem call is timed in a Metrics timer named after the task class.
+// When a sink is set, each result is put into the sink as soon as it is read (in item order)
+// instead of being returned from the task, so a DB task can write it while the rest are read.
+// An archive item that can't be read is reported and skipped, and the other items are still
+// read.  The skipped items are counted by getNumFailedItems() and in the sink.
+public abstract class ReadSdifArchiveTask<T> extends GcslTask<List<T>>
 {
     private List<ProcessArchiveItem> archiveItems;
+    private int                      maxThreads = 1;
+    private final AtomicInteger      numFailedItems = new AtomicInteger(0);
+    private ImportQueue<T>           sink;
+    private SdifReader.ReadMode      sd3ReadMode = SdifReader.ReadMode.BUFFERED;
 
     ReadSdifArchiveTask(List<ProcessArchiveItem> archiveItems)
     {
@@ -23,13 +40,105 @@ public abstract class ReadSdifArchiveTask<T> extends Task<List<T>>
     }
 
 
+    // Set the maximum number of archive items that are processed at the same time.
+    // A value of 1 (the default) processes the items one after another on the task's thread.
+    void setMaxThreads(int maxThreads)
+    {
+        this.maxThreads = Math.max(1, maxThreads);
+    }
+
+
+    // Set how SD3 archives are read.  ZIP entries are always streamed.
+    void setSd3ReadMode(SdifReader.ReadMode sd3ReadMode)
+    {
+        this.sd3ReadMode = sd3ReadMode;
+    }
+
+
+    // Send the results to the sink instead of returning them.  The sink is closed when the task
+    // ends; the task then returns an empty list.
+    void setSink(ImportQueue<T> sink)
+    {
+        this.sink = sink;
+    }
+
+
+    int getNumItems() { return archiveItems.size(); }
+
+    // The number of archive items that could not be read and were skipped.
+    int getNumFailedItems() { return numFailedItems.get(); }
+
+
     @Override
     protected List<T> call() throws Exception
+    {
+        List<T>   results;
+        Throwable error = null;
+        System.out.printf("Inside ReadSdifArchiveTask::call(). archiveItems.size()=%d, maxThreads=%d %n",
+                          archiveItems.size(), maxThreads);
+
+        try {
+            if (maxThreads > 1  &&  archiveItems.size() > 1) {
+                results = processItemsInParallel();
+            }
+            else {
+                results = processItems();
+            }
+            if (isCancelled()) {
+                error = new InterruptedException("Reading the archive files was cancelled.");
+            }
+        }
+        catch (Exception e) {
+            error = e;
+            throw e;
+        }
+        finally {
+            if (sink != null) {
+                sink.close(error);
+            }
+        }
+        if (numFailedItems.get() > 0) {
+            updateMessage("Archive files read.  " + numFailedItems.get() + " files could not be read and were skipped.");
+        }
+        else {
+            updateMessage("Archive files read successfully.");
+        }
+
+        return results;
+    }
+
+
+    // Open an SdifReader on the SDIF file in the archive, chosen by the priority ordering of
+    // extensions (CL2, HY3, SD3).  A ZIP entry is streamed straight from the archive, an SD3
+    // archive is itself the SDIF file and is read in sd3ReadMode.  The archives are the user's
+    // files, so BUFFERED is the default:  a mapping keeps the file locked on Windows until it is
+    // garbage collected.
+    protected SdifReader openSdifReader(ProcessArchiveItem archiveItem) throws IOException, SdifException
+    {
+        String []archiveContents = orderResultFiles(archiveItem.getContents());
+        String   archiveFilePath = archiveItem.getDirectory() + File.separator + archiveItem.getName();
+        SdifReader sdifReader;
+
+        Utils.ARCHIVE_FILE_TYPE fileType = Utils.getArchiveFileType(archiveFilePath);
+        switch (fileType) {
+            case ZIP : sdifReader = new SdifReader(archiveContents[0],
+                                                   Utils.openFileFromArchive(archiveFilePath, archiveContents[0]));
+                break;
+            case SD3:  sdifReader = new SdifReader(archiveFilePath, sd3ReadMode);
+                break;
+            default:   throw new SdifException("Unknown roster file archive.  Filepath=" + archiveFilePath);
+        }
+
+        return sdifReader;
+    }
+
+
+    // Process the archive items one after another.
+    private List<T> processItems() throws InterruptedException
     {
         int     curItem  = 0;
         int     numItems = archiveItems.size();
         List<T> results  = new ArrayList<>();
-        System.out.printf("Inside ReadSdifArchiveTask::call(). archiveItems.size()=%d %n", archiveItems.size());
 
         for (ProcessArchiveItem archiveItem : archiveItems) {
             if (isCancelled())  { break; }
@@ -38,34 +147,104 @@ public abstract class ReadSdifArchiveTask<T> extends Task<List<T>>
             updateMessage("Processing archive: " + archiveItem.getName());
             updateProgress(curItem, numItems);
 
-            T result = processArchiveItem(archiveItem);
-            results.add(result);
+            T result = readItem(archiveItem);
+            addResult(results, result);
         }
-        updateMessage("Archive files read successfully.");
 
         return results;
     }
 
 
-    // Extracts the SDIF file from the archive based the priority ordering of extensions (CL2, HY3, SD3)
-    // Return the path to the extracted archive file.
-    protected String extractSdifFileFromArchive(ProcessArchiveItem archiveItem) throws IOException, SdifException
+    // Process the archive items on a pool of up to maxThreads threads.  The results are returned
+    // in the same order as the archive items and progress counts the items that have completed.
+    private List<T> processItemsInParallel() throws Exception
     {
-        String []archiveContents = orderResultFiles(archiveItem.getContents());
-        String   archiveFilePath = archiveItem.getDirectory() + File.separator + archiveItem.getName();
-        String   resultFilePath;
+        int             numItems   = archiveItems.size();
+        AtomicInteger   numDone    = new AtomicInteger(0);
+        AtomicInteger   numThreads = new AtomicInteger(0);
+        List<Future<T>> futures    = new ArrayList<>();
+        List<T>         results    = new ArrayList<>();
 
-        // Extract the results file from the archive
-        Utils.ARCHIVE_FILE_TYPE fileType = Utils.getArchiveFileType(archiveFilePath);
-        switch (fileType) {
-            case ZIP : resultFilePath = Utils.getFileFromArchive(archiveFilePath, archiveContents[0]);
-                break;
-            case SD3:  resultFilePath = archiveFilePath;
-                break;
-            default:   throw new SdifException("Unknown roster file archive.  Filepath=" + archiveFilePath);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxThreads, numItems), runnable -> {
+            Thread thread = new Thread(runnable, "sdif-archive-" + numThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            for (ProcessArchiveItem archiveItem : archiveItems) {
+                futures.add(executor.submit(() -> {
+                    T result = readItem(archiveItem);
+
+                    updateMessage("Processed archive: " + archiveItem.getName());
+                    updateProgress(numDone.incrementAndGet(), numItems);
+                    return result;
+                }));
+            }
+
+            for (Future<T> future : futures) {
+                if (isCancelled())  { break; }
+                try {
+                    addResult(results, future.get());
+                }
+                catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw (cause instanceof Exception) ? (Exception) cause : e;
+                }
+            }
         }
+        finally {
+            executor.shutdownNow();
+        }
+
+        return results;
+    }
 
-        return resultFilePath;
+
+    // Add a result to the list of results, or pass it straight on to the sink if there is one.
+    // A null result is an item that failed and was already counted.
+    private void addResult(List<T> results, T result) throws InterruptedException
+    {
+        if (result == null) {
+            return;
+        }
+        if (sink != null) {
+            sink.put(result);
+        }
+        else {
+            results.add(result);
+        }
+    }
+
+
+    // Read an archive item.  If it can't be read, report and count it and return null so the
+    // other items are still read.
+    private T readItem(ProcessArchiveItem archiveItem)
+    {
+        try {
+            return timedProcessArchiveItem(archiveItem);
+        }
+        catch (SdifException | IOException | RuntimeException e) {
+            System.err.printf("ERROR - reading archive %s, skipping it: %s %n", archiveItem.getName(), e);
+            numFailedItems.incrementAndGet();
+            if (sink != null) {
+                sink.itemFailed();
+            }
+            return null;
+        }
+    }
+
+
+    // Process an archive item, recording the time it takes.
+    private T timedProcessArchiveItem(ProcessArchiveItem archiveItem) throws SdifException, IOException
+    {
+        long startedAt = System.nanoTime();
+        try {
+            return processArchiveItem(archiveItem);
+        }
+        finally {
+            Metrics.recordTime("archive." + getClass().getSimpleName(), startedAt);
+        }
     }
 
 
@@ -4,7 +4,9 @@ import org.gcsl.db.AthleteDbo;
 import org.gcsl.db.MeetDbo;
 import org.gcsl.db.OrphanDbo;
 import org.gcsl.db.TeamDbo;
+import org.gcsl.jfr.ReportEvent;
 import org.gcsl.model.*;
+import org.gcsl.util.Metrics;
 import org.gcsl.util.Utils;
 
 import java.io.File;
@@ -40,6 +42,9 @@ public class Reports
     {
         String fileSpec = Utils.createFileSpec(reportDir, "champs_exceptions", "txt", false);
         String trailerText = "================================================\n";
+        ReportEvent event = new ReportEvent();
+        long startedAt = System.nanoTime();
+        ChampsEligibility eligibility = ChampsEligibility.check(db, teams);
 
         try (PrintWriter pw = new PrintWriter(fileSpec)) {
             for(Team team : teams) {
@@ -49,12 +54,16 @@ public class Reports
                 pw.println(headerText);
                 printDiveOrphans(pw, diveEntriesMap.get(team.getId()));
                 printDiveEntryExceptions(pw, team, diveEntriesMap.get(team.getId()));
-                printEntryExceptions(pw, team);
+                printEntryExceptions(pw, team, eligibility);
                 pw.println(trailerText);
 
                 System.out.println(trailerText);
+                event.rowsWritten++;
             }
         }
+        finally {
+            reportDone(event, "champsExceptions", fileSpec, startedAt);
+        }
     }
 
 
@@ -62,22 +71,19 @@ public class Reports
     public void meetCountReport() throws Exception
     {
         String fileSpec = Utils.createFileSpec(reportDir, "meet_count", "csv", true);
-        Map<Integer, String> meetIdToDateMap = createMeetIdToDateMap();
+        ReportEvent event = new ReportEvent();
+        long startedAt = System.nanoTime();
 
         try (PrintWriter pw  = new PrintWriter(fileSpec)) {
             pw.println("Team Name,Athlete Name,Sex,DOB,Count,Meets");
 
-            List<Team> teams = TeamDbo.findAll(db);
-            for (Team team : teams) {
-                Set<Athlete> athletes = TeamDbo.retrieveAthletes(db, team);
-
-                for (Athlete athlete : athletes) {
-                    List<Integer> meetIds = AthleteDbo.getMeetIds(db, athlete);
-                    if (meetIds.size() > 0) {
-                        printMeetCountData(pw, athlete, team.getCode(), meetIds, meetIdToDateMap);
-                    }
-                }
-            }
+            AthleteDbo.forEachMeetCount(db, meetCount -> {
+                printMeetCountData(pw, meetCount);
+                event.rowsWritten++;
+            });
+        }
+        finally {
+            reportDone(event, "meetCount", fileSpec, startedAt);
         }
     }
 
@@ -86,9 +92,16 @@ public class Reports
     public void orphanReport() throws IOException
     {
         String fileSpec = Utils.createFileSpec(reportDir, "orphan_report", "csv", true);
+        ReportEvent event = new ReportEvent();
+        long startedAt = System.nanoTime();
 
         try (PrintWriter pw  = new PrintWriter(fileSpec)) {
-            printOrphanReport(pw, OrphanDbo.findAll(db));
+            List<Orphan> orphans = OrphanDbo.findAll(db);
+            printOrphanReport(pw, orphans);
+            event.rowsWritten = orphans.size();
+        }
+        finally {
+            reportDone(event, "orphans", fileSpec, startedAt);
         }
     }
 
@@ -123,21 +136,6 @@ public class Reports
     }
 
 
-    private String meetIdsToDateString(List<Integer> meetIds, Map<Integer, String> idToDateMap)
-    {
-        StringBuilder sb = new StringBuilder();
-
-        for (Integer id : meetIds) {
-            String date = idToDateMap.get(id);
-            if (date != null) {
-                sb.append(date).append(" ");
-            }
-        }
-
-        return sb.toString();
-    }
-
-
     private void printDiveEntryExceptions(PrintWriter pw, Team team, TeamDiveEntries diveEntries)
     {
         int numDiveEntries = diveEntries != null ? diveEntries.getAthletes().size() : 0;
@@ -179,41 +177,35 @@ public class Reports
     }
 
 
-    private String entryExceptionToString(Athlete athlete, List<Integer> meetIds)
+    private String entryExceptionToString(Athlete athlete, int meetCount, String meetDates)
     {
-        Map<Integer, String> meetIdToDateMap = createMeetIdToDateMap();
-        String meetDates = meetIdsToDateString(meetIds, meetIdToDateMap);
         StringBuilder sb = new StringBuilder();
 
         sb.append("\t\t")
           .append(athlete.getName()).append(",")
           .append(athlete.getGender()).append(",")
           .append(athlete.getDob()).append(",")
-          .append("count=").append(meetIds.size()).append(",")
+          .append("count=").append(meetCount).append(",")
           .append(meetDates);
+        if (! meetDates.isEmpty()) {
+            sb.append(" ");
+        }
 
         return sb.toString();
     }
 
-    private void printEntryExceptions(PrintWriter pw, Team team) throws SQLException
+    private void printEntryExceptions(PrintWriter pw, Team team, ChampsEligibility eligibility)
     {
         List<String> exceptionList = new ArrayList<>();
         List<String> orphanList = new ArrayList<>();
 
-        // make sure each entry is found in the DB (ie, not an orphan)
-        // make sure each entry has participated in 3 meets
-        for (Athlete athlete : team.getAthletes()) {
-            Athlete dbAthlete = AthleteDbo.find(db, athlete);
-
-            if (dbAthlete == null) {
-                orphanList.add(entryExceptionToString(athlete, Collections.emptyList()));
-            }
-            else {
-                List<Integer> meetIds = AthleteDbo.getMeetIds(db, dbAthlete);
-                if (meetIds.size() < 3) {
-                    exceptionList.add(entryExceptionToString(dbAthlete, meetIds));
-                }
-            }
+        // each entry must be found in the DB (ie, not an orphan) and have participated in 3 meets
+        for (Athlete orphan : eligibility.getOrphans(team)) {
+            orphanList.add(entryExceptionToString(orphan, 0, ""));
+        }
+        for (AthleteMeetCount meetCount : eligibility.getExceptions(team)) {
+            exceptionList.add(entryExceptionToString(meetCount.getAthlete(), meetCount.getMeetCount(),
+                                                     meetCount.getMeetDates()));
         }
 
         pw.print("\tChamps orphans: ");
@@ -239,14 +231,13 @@ public class Reports
     }
 
 
-    private void printMeetCountData(PrintWriter pw, Athlete athlete, String teamName, List<Integer>meetIds,
-                                    Map<Integer, String> meetIdToDateMap)
+    private void printMeetCountData(PrintWriter pw, AthleteMeetCount meetCount)
     {
-        String meetDates = meetIdsToDateString(meetIds, meetIdToDateMap);
+        Athlete athlete = meetCount.getAthlete();
 
         // Team, "Athlete Name", Gender, DOB, Meet Count, Meet Dates ...
-        pw.printf("%s,\"%s\",%s,%s,%d,%s%n", teamName, athlete.getName(), athlete.getGender(), athlete.getDob(),
-                                             meetIds.size(), meetDates);
+        pw.printf("%s,\"%s\",%s,%s,%d,%s%n", meetCount.getTeamCode(), athlete.getName(), athlete.getGender(),
+                                             athlete.getDob(), meetCount.getMeetCount(), meetCount.getMeetDates());
     }
 
 
@@ -264,4 +255,15 @@ public class Reports
             pw.printf("%s,%s,%d,\"%s\",%n", teamName, meetDate, meetId, orphan.getAthleteInfo());
         }
     }
+
+
+    // Record the time a report took and commit its ReportEvent.
+    private void reportDone(ReportEvent event, String reportName, String fileSpec, long startedAt)
+    {
+        Metrics.recordTime("report." + reportName, startedAt);
+
+        event.reportName = reportName;
+        event.fileName   = fileSpec;
+        event.commit();
+    }
 }
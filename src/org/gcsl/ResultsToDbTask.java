@@ -1,22 +1,33 @@
 package org.gcsl;
 
-import javafx.concurrent.Task;
 import org.gcsl.db.AthleteDbo;
+import org.gcsl.db.DbTransaction;
 import org.gcsl.db.MeetDbo;
 import org.gcsl.db.OrphanDbo;
 import org.gcsl.db.TeamDbo;
+import org.gcsl.jfr.MeetWriteEvent;
 import org.gcsl.model.*;
+import org.gcsl.util.Metrics;
 import org.gcsl.util.Utils;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.ArrayList;
-
-public class ResultsToDbTask extends Task<Void>
+import java.util.Iterator;
+import java.util.Map;
+
+// Write meet results to the DB.  The meets either come from a list, or are taken from an
+// ImportQueue as the archive files are read.  When reading from a queue, meets that need the
+// user to decide what to do (rain out entries and meets already in the DB) are not written.
+// They are returned by the task so the caller can ask the user and then write them with a
+// second task.
+public class ResultsToDbTask extends GcslTask<List<MeetResults>>
 {
-    private Connection dbConn;
-    private List<MeetResults> meetResults;
+    private Connection               dbConn;
+    private ImportQueue<MeetResults> importQueue;
+    private List<MeetResults>        meetResults;
+    private int                      numFailed;
 
     ResultsToDbTask(Connection dbConn, List<MeetResults> meetResults)
     {
@@ -24,67 +35,127 @@ public class ResultsToDbTask extends Task<Void>
         this.meetResults = meetResults;
     }
 
+    ResultsToDbTask(Connection dbConn, ImportQueue<MeetResults> importQueue)
+    {
+        this.dbConn = dbConn;
+        this.importQueue = importQueue;
+    }
+
+    // The number of meets that failed and were rolled back, plus the archives the reader could
+    // not read when reading from a queue.  Valid once the task has run.
+    int getNumFailed() { return numFailed; }
+
+
     @Override
-    protected Void call() throws Exception
+    protected List<MeetResults> call() throws Exception
     {
         int curItem = 0;
-        int existingMeetId = Utils.INVALID_ID;
-        int numItems = meetResults.size();
-        System.out.printf("Inside ResultsToDbTask, meetResults.size()=%d. %n", meetResults.size());
+        int numWriteFailed;
+        int numItems = (importQueue != null ? importQueue.getExpectedItems() : meetResults.size());
+        Iterator<MeetResults> meetIter = (importQueue != null ? null : meetResults.iterator());
+        List<MeetResults> deferredMeets = new ArrayList<>();
+        System.out.printf("Inside ResultsToDbTask, numItems=%d, streaming=%b. %n", numItems, importQueue != null);
+
+        // All the meets are written in one transaction, a meet that fails is rolled back on its own.
+        try (DbTransaction transaction = new DbTransaction(dbConn)) {
+            while (! isCancelled()) {
+                MeetResults meet;
+                if (importQueue != null) {
+                    meet = importQueue.take();
+                }
+                else {
+                    meet = meetIter.hasNext() ? meetIter.next() : null;
+                }
+                if (meet == null) {
+                    break;
+                }
 
-        for (MeetResults meet : meetResults) {
-            if (isCancelled()) {
-                break;
-            }
+                curItem++;
+                updateMessage("Processing results for meet: " + meet.getName());
+                updateProgress(curItem, numItems);
 
-            // Add bye week team if necessary
-            if (meet.getResultsScenario() == ProcessArchiveItem.Scenario.BYE_WEEK_ENTRIES
-            ||  meet.getResultsScenario() == ProcessArchiveItem.Scenario.BYE_WEEK_RESULTS) {
-                Team byeWeekTeam = TeamDbo.findByCode(dbConn, "BYE");
-                if (byeWeekTeam != null) {
-                    meet.addTeam(byeWeekTeam);
+                if (importQueue != null  &&  needsUserDecision(meet)) {
+                    System.out.printf("Deferring results for meet %s. %n", meet.getName());
+                    deferredMeets.add(meet);
+                }
+                else {
+                    writeMeet(transaction, "meet_" + curItem, meet);
                 }
             }
 
-            curItem++;
-            updateMessage("Processing results for meet: " + meet.getName());
-            updateProgress(curItem, numItems);
-
-            // NOTE:  different result types may only have 1 team
-            List<Team> teams = meet.getTeams();
-            if (teams.size() < 2)  {
-                System.err.println("Error:  Not 2 teams in the meet results.");
-                updateMessage("Error:  Not 2 teams in the meet results.");
-                return null;
+            if (isCancelled()) {
+                return new ArrayList<>();   // closing the transaction rolls back
             }
+            transaction.commit();
+            numWriteFailed = transaction.getNumFailedItems();
+        }
 
-            Meet dbMeet = MeetDbo.findByTeams(dbConn, meet);
-            if (dbMeet != null) {
-                existingMeetId = dbMeet.getId();
-                removeResults(dbMeet);
-            }
+        numFailed = numWriteFailed + (importQueue != null ? importQueue.getNumFailedItems() : 0);
+        int numWritten = curItem - deferredMeets.size() - numWriteFailed;
+        updateMessage("Successfully processed " + numWritten + " meet results to the DB." +
+                      (numFailed > 0 ? "  " + numFailed + " meets failed and were not written." : ""));
+        return deferredMeets;
+    }
 
-            if (! updateTeamIds(teams)) {
-                System.err.println("Error:  one of the teams in the results is not found in the DB.");
-                updateMessage("Error:  one of the teams in the results is not found in the DB.");
-                return null;
-            }
-            List<Athlete> orphans = updateAthlteIds(teams);
-            meet.addOrphans(orphans);
-            System.out.printf("Inserting meet into the DB with %d orphans %n", orphans.size());
 
-            if (existingMeetId != Utils.INVALID_ID) {
-                MeetDbo.update(dbConn, meet, existingMeetId);
-                System.out.printf("Updated meet %d in the DB.\n", existingMeetId);
-            }
-            else {
-                int meetId = MeetDbo.insert(dbConn, meet);
-                System.out.printf("Inserted meet %d into the DB.\n", meetId);
+    // Return true if the user has to be asked about the meet before it is written:  rain out
+    // entries must be paired up and meets already in the DB may only be replaced when confirmed.
+    private boolean needsUserDecision(MeetResults meet) throws SQLException
+    {
+        return meet.getResultsScenario() == ProcessArchiveItem.Scenario.RAIN_OUT_ENTRIES
+           ||  MeetDbo.findByTeams(dbConn, meet) != null;
+    }
+
+
+    // Write a meet, replacing its results if the meet is already in the DB.
+    // Return false if the meet can't be written because its teams are missing; the caller
+    // then rolls back any changes already made for the meet.
+    private boolean processMeet(MeetResults meet) throws SQLException
+    {
+        int existingMeetId = Utils.INVALID_ID;
+
+        // Add bye week team if necessary
+        if (meet.getResultsScenario() == ProcessArchiveItem.Scenario.BYE_WEEK_ENTRIES
+        ||  meet.getResultsScenario() == ProcessArchiveItem.Scenario.BYE_WEEK_RESULTS) {
+            Team byeWeekTeam = TeamDbo.findByCode(dbConn, "BYE");
+            if (byeWeekTeam != null) {
+                meet.addTeam(byeWeekTeam);
             }
         }
 
-        updateMessage("Successfully processed " + meetResults.size() + " meet results to the DB.");
-        return null;
+        // NOTE:  different result types may only have 1 team
+        List<Team> teams = meet.getTeams();
+        if (teams.size() < 2)  {
+            System.err.println("Error:  Not 2 teams in the meet results.");
+            updateMessage("Error:  Not 2 teams in the meet results.");
+            return false;
+        }
+
+        Meet dbMeet = MeetDbo.findByTeams(dbConn, meet);
+        if (dbMeet != null) {
+            existingMeetId = dbMeet.getId();
+            removeResults(dbMeet);
+        }
+
+        if (! updateTeamIds(teams)) {
+            System.err.println("Error:  one of the teams in the results is not found in the DB.");
+            updateMessage("Error:  one of the teams in the results is not found in the DB.");
+            return false;
+        }
+        List<Athlete> orphans = updateAthlteIds(teams);
+        meet.addOrphans(orphans);
+        Metrics.recordValue("results.orphansPerMeet", orphans.size());
+        System.out.printf("Inserting meet into the DB with %d orphans %n", orphans.size());
+
+        if (existingMeetId != Utils.INVALID_ID) {
+            MeetDbo.update(dbConn, meet, existingMeetId);
+            System.out.printf("Updated meet %d in the DB.\n", existingMeetId);
+        }
+        else {
+            int meetId = MeetDbo.insert(dbConn, meet);
+            System.out.printf("Inserted meet %d into the DB.\n", meetId);
+        }
+        return true;
     }
 
 
@@ -97,30 +168,30 @@ public class ResultsToDbTask extends Task<Void>
 
 
     // Update the athletes with their DB IDs.  Any athletes not found in the DB are returned
-    // in the orphan list.
+    // in the orphan list.  The athletes of all the teams are resolved with a single DB query.
     private List<Athlete> updateAthlteIds(List<Team> teams) throws SQLException
     {
-        List<Athlete> orphans = new ArrayList<>();
+        AthleteDbo.Resolution resolution = AthleteDbo.resolve(dbConn, teams);
+        Map<Athlete, Integer> athleteIds = resolution.getAthleteIds();
 
         for (Team resultsTeam : teams) {
             List<Athlete> newOrphans = new ArrayList<>();
 
             for (Athlete athlete : resultsTeam.getAthletes()) {
-                Athlete dbAthlete = AthleteDbo.find(dbConn, athlete);
-                if (dbAthlete == null) {
+                Integer athleteId = athleteIds.get(athlete);
+                if (athleteId == null) {
                     newOrphans.add(athlete);
                 }
                 else {
-                    athlete.setId(dbAthlete.getId());
+                    athlete.setId(athleteId);
                 }
             }
 
             for (Athlete orphan : newOrphans) {
-                orphans.add(orphan);
                 resultsTeam.removeAthlete(orphan);
             }
         }
-        return orphans;
+        return resolution.getOrphans();
     }
 
     // Update the teams with their DB IDs
@@ -140,4 +211,29 @@ public class ResultsToDbTask extends Task<Void>
         }
         return rc;
     }
+
+
+    // Write a meet in its own savepoint of the transaction, timing it and recording a
+    // MeetWriteEvent.  The rows written are only counted when the event was enabled when the
+    // meet started.
+    private void writeMeet(DbTransaction transaction, String itemName, MeetResults meet) throws SQLException
+    {
+        MeetWriteEvent event     = new MeetWriteEvent();
+        long           startedAt = System.nanoTime();
+        long           changes   = (event.isEnabled() ? DbTransaction.getTotalChanges(dbConn) : -1);
+        int            athletes  = meet.getTeams().stream().mapToInt(team -> team.getAthletes().size()).sum();
+
+        boolean written = transaction.runItem(itemName, () -> processMeet(meet));
+        Metrics.recordTime("results.meet", startedAt);
+
+        if (event.shouldCommit()) {
+            event.meetName     = meet.getName();
+            event.meetDate     = String.valueOf(meet.getDate());
+            event.athleteCount = athletes;
+            event.orphanCount  = meet.getOrphans().size();
+            event.rowsWritten  = (changes >= 0 ? DbTransaction.getTotalChanges(dbConn) - changes : 0);
+            event.written      = written;
+            event.commit();
+        }
+    }
 }
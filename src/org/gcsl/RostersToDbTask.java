@@ -1,21 +1,28 @@
 package org.gcsl;
 
-import javafx.concurrent.Task;
 import org.gcsl.db.AthleteDbo;
+import org.gcsl.db.DbTransaction;
 import org.gcsl.db.TeamDbo;
+import org.gcsl.jfr.RosterMergeEvent;
 import org.gcsl.model.Athlete;
 import org.gcsl.model.Team;
+import org.gcsl.util.Metrics;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
-public class RostersToDbTask extends Task<Void>
+// Write team rosters to the DB.  The teams either come from a list, or are taken from an
+// ImportQueue and written as soon as each roster file is read.
+public class RostersToDbTask extends GcslTask<Void>
 {
-    private Connection dbConn;
-    private List<Team> teams;
+    private Connection        dbConn;
+    private ImportQueue<Team> importQueue;
+    private List<Team>        teams;
+    private int               numFailed;
 
     RostersToDbTask(Connection conn, List<Team> teams)
     {
@@ -23,42 +30,83 @@ public class RostersToDbTask extends Task<Void>
         this.teams  = teams;
     }
 
+    RostersToDbTask(Connection conn, ImportQueue<Team> importQueue)
+    {
+        this.dbConn      = conn;
+        this.importQueue = importQueue;
+    }
+
+
+    // The number of teams that failed and were rolled back, plus the archives the reader could
+    // not read when reading from a queue.  Valid once the task has run.
+    int getNumFailed() { return numFailed; }
+
 
     @Override
     protected Void call() throws Exception
     {
         int curItem = 0;
-        int numItems = teams.size();
-        System.out.printf("Inside RostersToDbTask, teams.size()=%d. %n", teams.size());
+        int numWriteFailed;
+        int numItems = (importQueue != null ? importQueue.getExpectedItems() : teams.size());
+        Iterator<Team> teamIter = (importQueue != null ? null : teams.iterator());
+        System.out.printf("Inside RostersToDbTask, numItems=%d, streaming=%b. %n", numItems, importQueue != null);
+
+        // All the rosters are written in one transaction, a team that fails is rolled back on its own.
+        try (DbTransaction transaction = new DbTransaction(dbConn)) {
+            while (! isCancelled()) {
+                Team team;
+                if (importQueue != null) {
+                    team = importQueue.take();
+                }
+                else {
+                    team = teamIter.hasNext() ? teamIter.next() : null;
+                }
+                if (team == null) {
+                    break;
+                }
+                curItem++;
+
+                long startedAt = System.nanoTime();
+                transaction.runItem("team_" + curItem, () -> processTeam(team));
+                Metrics.recordTime("rosters.team", startedAt);
+
+                updateMessage("Processing roster for team: " + team.getName());
+                updateProgress(curItem, numItems);
+            }
 
-        for (Team team : teams) {
             if (isCancelled()) {
-                break;
-            }
-            curItem++;
-
-            Team dbTeam = TeamDbo.find(dbConn, team);
-            if (dbTeam == null) {
-                // Team not in DB, add it to DB.
-                dbTeam = TeamDbo.insert(dbConn, team);
-            } else {
-                // Team in DB, get all the athletes associated with this team.
-                dbTeam.addRoster(TeamDbo.retrieveAthletes(dbConn, dbTeam));
+                return null;   // closing the transaction rolls back
             }
-            team.setId(dbTeam.getId());   // now we know the team ID, assign it to the sdif-generated Team
+            transaction.commit();
+            numWriteFailed = transaction.getNumFailedItems();
+        }
+
+        numFailed = numWriteFailed + (importQueue != null ? importQueue.getNumFailedItems() : 0);
+        updateMessage("Successfully processed " + (curItem - numWriteFailed) + " team to the DB." +
+                      (numFailed > 0 ? "  " + numFailed + " teams failed and were not written." : ""));
+        return null;
+    }
 
-            if (dbTeam.getAthletes().size() == 0) {
-                insertAthletes(team.getAthletes());
-            } else {
-                mergeAthletes(dbTeam, team);
-            }
 
-            updateMessage("Processing roster for team: " + team.getName());
-            updateProgress(curItem, numItems);
+    // Add the team to the DB if it is new, then add or merge its roster.
+    private boolean processTeam(Team team) throws SQLException
+    {
+        Team dbTeam = TeamDbo.find(dbConn, team);
+        if (dbTeam == null) {
+            // Team not in DB, add it to DB.
+            dbTeam = TeamDbo.insert(dbConn, team);
+        } else {
+            // Team in DB, get all the athletes associated with this team.
+            dbTeam.addRoster(TeamDbo.retrieveAthletes(dbConn, dbTeam));
         }
+        team.setId(dbTeam.getId());   // now we know the team ID, assign it to the sdif-generated Team
 
-        updateMessage("Successfully processed " + teams.size() + " team to the DB.");
-        return null;
+        if (dbTeam.getAthletes().size() == 0) {
+            insertAthletes(team.getAthletes());
+        } else {
+            mergeAthletes(dbTeam, team);
+        }
+        return true;
     }
 
 
@@ -66,7 +114,6 @@ public class RostersToDbTask extends Task<Void>
     // Throw an SQLException if there is a DB error.
     private void deleteAthletes(Set<Athlete> athletes) throws SQLException
     {
-        dbConn.setAutoCommit(false);
         for (Athlete athlete : athletes) {
             System.out.printf("Deleting athlete %s %n", athlete.toString());
             AthleteDbo.remove(dbConn, athlete);
@@ -85,8 +132,12 @@ public class RostersToDbTask extends Task<Void>
 
     // Merge a new team roster with the existing team roster.  New athletes are added
     // to the DB and existing athletes not on the new team are removed from the DB.
+    // The merge is recorded as a RosterMergeEvent.
     private void mergeAthletes(Team existingTeam, Team newTeam) throws SQLException
     {
+        RosterMergeEvent event   = new RosterMergeEvent();
+        long             changes = (event.isEnabled() ? DbTransaction.getTotalChanges(dbConn) : -1);
+
         Set<Athlete> addMeCache = new HashSet<>();
         // Copy the existing athletes to initialize the deleteMeCache.  We'll eventually delete
         // all athletes from the DB that remain in this set.
@@ -106,5 +157,14 @@ public class RostersToDbTask extends Task<Void>
                           newTeam.getName(), deleteMeCache.size(), addMeCache.size());
         if (deleteMeCache.size() > 0)  { deleteAthletes(deleteMeCache); }
         if (addMeCache.size() > 0)     { insertAthletes(addMeCache); }
+
+        if (event.shouldCommit()) {
+            event.teamName        = newTeam.getName();
+            event.athleteCount    = newTeam.getAthletes().size();
+            event.athletesAdded   = addMeCache.size();
+            event.athletesDeleted = deleteMeCache.size();
+            event.rowsWritten     = (changes >= 0 ? DbTransaction.getTotalChanges(dbConn) - changes : 0);
+            event.commit();
+        }
     }
 }
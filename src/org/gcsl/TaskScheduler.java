@@ -0,0 +1,97 @@
+package org.gcsl;
+
+import org.gcsl.util.Metrics;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs the application's background tasks on two lanes:
+//   - a bounded pool of worker threads for tasks that read and parse files, and
+//   - a single DB thread for tasks that use the shared DB connection.  DB tasks run one at a
+//     time in the order they were submitted, so they never use the connection at the same time.
+// A file can therefore be parsed while the previous results are written to the DB.
+// The queue depth is logged when a task is submitted and the wait and run times when it ends.
+// The times are also recorded in Metrics, and the metrics recorded since the previous dump are
+// dumped after each task.
+public class TaskScheduler
+{
+    private final ThreadPoolExecutor dbExecutor;
+    private final ThreadPoolExecutor workerExecutor;
+
+
+    TaskScheduler(int numWorkers)
+    {
+        int poolSize = Math.max(1, numWorkers);
+
+        workerExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                                                new LinkedBlockingQueue<>(), makeThreadFactory("gcsl-worker-"));
+        dbExecutor     = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                                                new LinkedBlockingQueue<>(), makeThreadFactory("gcsl-db-"));
+    }
+
+
+    // Run a task that does not use the DB connection on the worker pool.
+    void submit(GcslTask<?> task)
+    {
+        execute(workerExecutor, "worker", task);
+    }
+
+
+    // Run a task that uses the DB connection on the DB thread, after all the DB tasks
+    // submitted before it have finished.
+    void submitDbTask(GcslTask<?> task)
+    {
+        execute(dbExecutor, "db", task);
+    }
+
+
+    // Stop both lanes.  Running tasks are interrupted and queued tasks are dropped.
+    void shutdown()
+    {
+        workerExecutor.shutdownNow();
+        dbExecutor.shutdownNow();
+    }
+
+
+    private void execute(ThreadPoolExecutor executor, String lane, GcslTask<?> task)
+    {
+        String taskName = task.getName();
+        long   queuedAt = System.nanoTime();
+
+        executor.execute(() -> {
+            long startedAt = System.nanoTime();
+            try {
+                task.run();
+            }
+            finally {
+                long finishedAt = System.nanoTime();
+                Metrics.recordNanos("task.wait." + lane, startedAt - queuedAt);
+                Metrics.recordNanos("task.run." + taskName, finishedAt - startedAt);
+                System.out.printf("TaskScheduler: %s finished on %s lane, waited %d ms, ran %d ms, queue depth=%d %n",
+                                  taskName, lane, toMillis(startedAt - queuedAt), toMillis(finishedAt - startedAt),
+                                  executor.getQueue().size());
+                Metrics.dump(taskName);
+            }
+        });
+
+        Metrics.recordValue("task.queueDepth." + lane, executor.getQueue().size());
+        System.out.printf("TaskScheduler: %s queued on %s lane, queue depth=%d, active=%d %n",
+                          taskName, lane, executor.getQueue().size(), executor.getActiveCount());
+    }
+
+
+    private static ThreadFactory makeThreadFactory(String namePrefix)
+    {
+        AtomicInteger numThreads = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + numThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static long toMillis(long nanos) { return TimeUnit.NANOSECONDS.toMillis(nanos); }
+}
@@ -1,27 +1,45 @@
 package org.gcsl.db;
 
 import org.gcsl.model.Athlete;
+import org.gcsl.model.AthleteKey;
+import org.gcsl.model.AthleteMeetCount;
+import org.gcsl.model.Team;
 import org.gcsl.util.Utils;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.sql.Statement;
+import java.util.*;
+import java.util.function.Consumer;
 
 public class AthleteDbo {
 
+    // The result of resolving a group of athletes against the DB:  the DB ID of each athlete
+    // that was found and the athletes that were not found (orphans).
+    public static class Resolution
+    {
+        private final Map<Athlete, Integer> athleteIds = new HashMap<>();
+        private final List<Athlete>         orphans    = new ArrayList<>();
+
+        public Map<Athlete, Integer> getAthleteIds() { return Collections.unmodifiableMap(athleteIds); }
+        public List<Athlete>         getOrphans()    { return Collections.unmodifiableList(orphans); }
+    }
+
     // find - find the athlete in the DB.  Return null if not found.
     //        NOTE: Athlete index is on name+dob+gender+teamId
     public static Athlete find(Connection db, Athlete athlete) throws SQLException
     {
-        Athlete athleteFromDb = null;
+        Athlete athleteFromDb = DbCache.getAthlete(athlete);
         String  query = "SELECT * from Athletes WHERE name=? AND dob=? AND gender=? AND team_id=?";
         int     teamId = athlete.getTeamId();
 
-        try (PreparedStatement pstmt = db.prepareStatement(query)){
+        if (athleteFromDb != null) {
+            return athleteFromDb;
+        }
+
+        try (PreparedStatement pstmt = StatementCache.prepare(db, query)){
 
             pstmt.setString(1, athlete.getName());
             pstmt.setString(2, athlete.getDob());
@@ -37,6 +55,7 @@ public class AthleteDbo {
                 String lastUpdate = rs.getString("last_update");
 
                 athleteFromDb = new Athlete(id, name, gender, dob, teamId, lastUpdate);
+                DbCache.putAthlete(athleteFromDb);
             }
         }
 
@@ -46,10 +65,14 @@ public class AthleteDbo {
     // find an athlete in the DB based on the athlete ID
     public static Athlete find(Connection db, int athleteId) throws SQLException
     {
-        Athlete athleteFromDb = null;
+        Athlete athleteFromDb = DbCache.getAthlete(athleteId);
         String  query = "SELECT * from Athletes WHERE id=?";
 
-        try (PreparedStatement pstmt = db.prepareStatement(query)){
+        if (athleteFromDb != null) {
+            return athleteFromDb;
+        }
+
+        try (PreparedStatement pstmt = StatementCache.prepare(db, query)){
             pstmt.setInt(1, athleteId);
 
             ResultSet rs = pstmt.executeQuery();
@@ -62,6 +85,7 @@ public class AthleteDbo {
                 int    teamId = rs.getInt("team_id");
 
                 athleteFromDb = new Athlete(id, name, gender, dob, teamId, lastUpdate);
+                DbCache.putAthlete(athleteFromDb);
             }
         }
 
@@ -84,7 +108,7 @@ public class AthleteDbo {
         }
         else {
             String  query = "SELECT * from Athletes WHERE name=? AND gender=? AND team_id=?";
-            try (PreparedStatement pstmt = db.prepareStatement(query)){
+            try (PreparedStatement pstmt = StatementCache.prepare(db, query)){
 
                 pstmt.setString(1, athlete.getName());
                 pstmt.setString(2, athlete.getGender());
@@ -113,7 +137,7 @@ public class AthleteDbo {
         List<Integer> meetIds = new ArrayList<>();
         String sql = "SELECT meet_id FROM Athlete_Meet WHERE athlete_id = ?";
 
-        try (PreparedStatement pstmt = db.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql)) {
 
             pstmt.setInt(1, athlete.getId());
             ResultSet rs = pstmt.executeQuery();
@@ -128,35 +152,95 @@ public class AthleteDbo {
     }
 
 
-    // insert a single athlete into the DB.
+    // Resolve the athletes of a group of teams against the DB.  All the DB athletes of the teams are
+    // loaded with one query (per StatementCache.IN_LIST_SIZE teams) and matched in memory on
+    // name+dob+gender+teamId, the same key used by find.
+    // The teams (and so their athletes) must already have their DB team IDs.
+    public static Resolution resolve(Connection db, Collection<Team> teams) throws SQLException
+    {
+        Resolution resolution = new Resolution();
+        Map<AthleteKey, Integer> dbAthleteIds = findIdsByTeam(db, teams);
+
+        for (Team team : teams) {
+            for (Athlete athlete : team.getAthletes()) {
+                Integer id = dbAthleteIds.get(athlete.getKey());
+                if (id == null) {
+                    resolution.orphans.add(athlete);
+                }
+                else {
+                    resolution.athleteIds.put(athlete, id);
+                }
+            }
+        }
+
+        return resolution;
+    }
+
+
+    // Pass the meet count of every athlete that has been credited with at least one meet to the consumer,
+    // ordered by team and athlete name.  The counts are read from Athlete_Meet_Count and each row
+    // is handed to the consumer as it is read, so the whole result is never held in memory.
+    public static void forEachMeetCount(Connection db, Consumer<AthleteMeetCount> consumer) throws SQLException
+    {
+        String sql = "SELECT t.code AS team_code, a.id, a.name, a.dob, a.gender, a.team_id, a.last_update, " +
+                     "       c.meet_count, c.meet_dates " +
+                     "FROM Athletes a " +
+                     "JOIN Teams t ON t.id = a.team_id " +
+                     "JOIN Athlete_Meet_Count c ON c.athlete_id = a.id " +
+                     "ORDER BY t.id, a.name";
+
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                Athlete athlete = new Athlete(rs.getInt("id"), rs.getString("name"), rs.getString("gender"),
+                                              rs.getString("dob"), rs.getInt("team_id"), rs.getString("last_update"));
+
+                consumer.accept(new AthleteMeetCount(athlete, rs.getString("team_code"),
+                                                     rs.getInt("meet_count"), rs.getString("meet_dates")));
+            }
+        }
+    }
+
+
+    // insert a single athlete into the DB.  The athlete's ID is set to the new DB ID.
     public static void insert(Connection db, Athlete athlete) throws SQLException
     {
         String sql = "INSERT INTO Athletes (name, dob, gender, team_id) VALUES ( ?, ?, ?, ? )";
 
-        try (PreparedStatement pstmt = db.prepareStatement(sql)){
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql, Statement.RETURN_GENERATED_KEYS)){
             pstmt.setString(1, athlete.getName());
             pstmt.setString(2, athlete.getDob());
             pstmt.setString(3, athlete.getGender());
             pstmt.setInt(4, athlete.getTeamId());
 
             pstmt.executeUpdate();
+            athlete.setId(GeneratedKeys.getKey(pstmt));
         }
     }
 
-    // insert a set of athletes into the DB.
+    // insert a set of athletes into the DB.  The rows are sent in batches of DbConfig.getBatchSize().
+    // Each athlete's ID is set to the new DB ID.
     public static void insert(Connection db, Set<Athlete> athletes) throws SQLException
     {
-        String sql = "INSERT INTO Athletes (name, dob, gender, team_id) VALUES ( ?, ?, ?, ? )";
+        String        sql = "INSERT INTO Athletes (name, dob, gender, team_id) VALUES ( ?, ?, ?, ? )";
+        int           batchSize = DbConfig.getBatchSize();
+        List<Athlete> batch = new ArrayList<>();
 
-        try (PreparedStatement pstmt = db.prepareStatement(sql)){
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql, Statement.RETURN_GENERATED_KEYS)){
             for (Athlete athlete : athletes) {
                 pstmt.setString(1, athlete.getName());
                 pstmt.setString(2, athlete.getDob());
                 pstmt.setString(3, athlete.getGender());
                 pstmt.setInt(4, athlete.getTeamId());
+                pstmt.addBatch();
+                batch.add(athlete);
 
-                pstmt.executeUpdate();
+                if (batch.size() == batchSize) {
+                    executeInsertBatch(pstmt, batch);
+                }
             }
+            executeInsertBatch(pstmt, batch);
         }
     }
 
@@ -164,9 +248,57 @@ public class AthleteDbo {
     {
         String sql = "DELETE FROM Athletes WHERE id = ?";
 
-        try (PreparedStatement pstmt = db.prepareStatement(sql)){
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql)){
             pstmt.setInt(1, athlete.getId());
             pstmt.executeUpdate();
         }
+        MeetCountDbo.remove(db, athlete);
+        DbCache.removeAthlete(athlete);
+    }
+
+
+    // Send a batch of athlete inserts to the DB, set the athletes' IDs and empty the batch.
+    // GeneratedKeys.getBatchKeys counts the IDs back from the last one, which is only right
+    // while this connection is the only writer and the INSERT has no conflict clause (OR IGNORE,
+    // OR REPLACE), so every row of the batch is inserted with the next row ID.
+    private static void executeInsertBatch(PreparedStatement pstmt, List<Athlete> batch) throws SQLException
+    {
+        if (batch.size() > 0) {
+            pstmt.executeBatch();
+            int[] ids = GeneratedKeys.getBatchKeys(pstmt, batch.size());
+            for (int i = 0; i < ids.length; i++) {
+                batch.get(i).setId(ids[i]);
+            }
+            batch.clear();
+        }
+    }
+
+
+    // Load the IDs of all the DB athletes that belong to the teams, keyed by athlete.
+    private static Map<AthleteKey, Integer> findIdsByTeam(Connection db, Collection<Team> teams) throws SQLException
+    {
+        Map<AthleteKey, Integer> athleteIds = new HashMap<>();
+        Set<Integer> teamIdSet = new HashSet<>();
+
+        teams.forEach(team -> teamIdSet.add(team.getId()));
+        teamIdSet.remove(Utils.INVALID_ID);
+        List<Integer> teamIds = new ArrayList<>(teamIdSet);
+        String sql = "SELECT id, name, dob, gender, team_id FROM Athletes WHERE team_id IN " + StatementCache.inList();
+
+        for (int from = 0; from < teamIds.size(); from += StatementCache.IN_LIST_SIZE) {
+            try (PreparedStatement pstmt = StatementCache.prepare(db, sql)) {
+                StatementCache.setInList(pstmt, 1, teamIds, from);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        AthleteKey key = new AthleteKey(rs.getString("name"), rs.getString("gender"),
+                                                        rs.getString("dob"), rs.getInt("team_id"));
+                        athleteIds.put(key, rs.getInt("id"));
+                    }
+                }
+            }
+        }
+
+        return athleteIds;
     }
 }
@@ -0,0 +1,135 @@
+package org.gcsl.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+// Prepare a new SQLite connection for use by the DBOs:
+//   - apply the pragma profile.  Each pragma can be changed in jgcsl.properties with a
+//     sqlite_<pragma> entry, eg. "sqlite_journal_mode = DELETE".  An empty value skips the pragma.
+//   - bring the schema up to date with SchemaMigrator.  The indexes the DBO queries rely on
+//     are created by a migration (createIndexes).
+public class DbBootstrap
+{
+    private DbBootstrap() {}
+
+    // pragma name, default value
+    private static final String[][] PRAGMAS = {
+        { "journal_mode", "WAL"       },
+        { "synchronous",  "NORMAL"    },
+        { "cache_size",   "-16000"    },   // negative is KiB, so 16 MB
+        { "mmap_size",    "268435456" },   // 256 MB
+        { "temp_store",   "MEMORY"    },
+    };
+
+    // index name, table, columns.  An existing index on the same leading columns is also accepted.
+    private static final String[][] INDEXES = {
+        { "idx_athletes_key",       "Athletes",     "name", "dob", "gender", "team_id" },
+        { "idx_athletes_team",      "Athletes",     "team_id" },
+        { "idx_athlete_meet_ath",   "Athlete_Meet", "athlete_id" },
+        { "idx_athlete_meet_meet",  "Athlete_Meet", "meet_id" },
+        { "idx_orphans_meet",       "Orphans",      "meet_id" },
+        { "idx_meets_teams_date",   "Meets",        "team1_id", "team2_id", "meet_date" },
+    };
+
+    private static final Pattern PRAGMA_VALUE = Pattern.compile("-?[A-Za-z0-9_]+");
+
+
+    // Apply the pragmas and migrate the schema.  Throw an SQLException if there is a DB error
+    // or a pragma value in the config is not valid.
+    public static void configure(Connection db, Properties config) throws SQLException
+    {
+        applyPragmas(db, config);
+        SchemaMigrator.migrate(db);
+    }
+
+
+    static void applyPragmas(Connection db, Properties config) throws SQLException
+    {
+        try (Statement stmt = db.createStatement()) {
+            for (String[] pragma : PRAGMAS) {
+                String value = config.getProperty("sqlite_" + pragma[0], pragma[1]).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                if (! PRAGMA_VALUE.matcher(value).matches()) {
+                    throw new SQLException("Invalid value for sqlite_" + pragma[0] + ": " + value);
+                }
+
+                stmt.execute("PRAGMA " + pragma[0] + " = " + value);
+                try (ResultSet rs = stmt.executeQuery("PRAGMA " + pragma[0])) {
+                    System.out.printf("DbBootstrap: PRAGMA %s = %s %n", pragma[0], rs.next() ? rs.getString(1) : "?");
+                }
+            }
+        }
+    }
+
+
+    // Create the indexes that are missing.  An existing index on the same leading columns is
+    // used instead of creating a new one.
+    static void createIndexes(Connection db) throws SQLException
+    {
+        try (Statement stmt = db.createStatement()) {
+            for (String[] index : INDEXES) {
+                String       name    = index[0];
+                String       table   = index[1];
+                List<String> columns = Arrays.asList(index).subList(2, index.length);
+
+                if (! tableExists(db, table)) {
+                    System.out.printf("DbBootstrap: table %s not found, index %s not created %n", table, name);
+                }
+                else if (! hasIndex(db, table, columns)) {
+                    System.out.printf("DbBootstrap: creating index %s on %s%s %n", name, table, columns);
+                    stmt.execute("CREATE INDEX IF NOT EXISTS " + name + " ON " + table +
+                                 " (" + String.join(", ", columns) + ")");
+                }
+            }
+        }
+    }
+
+
+    // Return true if the table has an index whose leading columns are the given columns.
+    private static boolean hasIndex(Connection db, String table, List<String> columns) throws SQLException
+    {
+        List<String> indexNames = new ArrayList<>();
+        try (Statement stmt = db.createStatement();
+             ResultSet rs   = stmt.executeQuery("PRAGMA index_list(" + table + ")")) {
+            while (rs.next()) {
+                indexNames.add(rs.getString("name"));
+            }
+        }
+
+        for (String indexName : indexNames) {
+            List<String> indexColumns = new ArrayList<>();
+            try (Statement stmt = db.createStatement();
+                 ResultSet rs   = stmt.executeQuery("PRAGMA index_info('" + indexName.replace("'", "''") + "')")) {
+                while (rs.next()) {
+                    indexColumns.add(rs.getString("name"));
+                }
+            }
+            if (indexColumns.size() >= columns.size()
+            &&  indexColumns.subList(0, columns.size()).equals(columns)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static boolean tableExists(Connection db, String table) throws SQLException
+    {
+        try (PreparedStatement pstmt = db.prepareStatement("SELECT name FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.gcsl.db;
+
+import org.gcsl.model.Athlete;
+import org.gcsl.model.AthleteKey;
+import org.gcsl.model.Meet;
+import org.gcsl.model.Team;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Session-wide cache of the Teams, Athletes and Meets read from the DB, consulted by the DBOs
+// before running a query.  Entries are keyed by the natural keys the DBOs search on (team code,
+// athlete name+dob+gender+teamId) and by DB ID.  Each map holds at most DbConfig.getCacheSize()
+// entries and evicts the least recently used entry when full.
+//
+// Only rows that were found are cached.  Team and Athlete objects are copied going into and
+// out of the cache because callers modify the objects they get back from the DBOs.
+public class DbCache
+{
+    private DbCache() {}
+
+    private static class LruMap<K, V> extends LinkedHashMap<K, V>
+    {
+        private static final long serialVersionUID = 1L;
+
+        LruMap() { super(256, 0.75f, true); }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest)
+        {
+            return size() > DbConfig.getCacheSize();
+        }
+    }
+
+    private static final Map<AthleteKey, Athlete> athletesByKey = new LruMap<>();
+    private static final Map<Integer, Athlete>    athletesById  = new LruMap<>();
+    private static final Map<Integer, Meet>       meetsById     = new LruMap<>();
+    private static final Map<String, Team>        teamsByCode   = new LruMap<>();
+    private static final Map<Integer, Team>       teamsById     = new LruMap<>();
+
+
+    // Remove everything from the cache, eg. after a DB rollback.
+    public static synchronized void clear()
+    {
+        athletesByKey.clear();
+        athletesById.clear();
+        meetsById.clear();
+        teamsByCode.clear();
+        teamsById.clear();
+    }
+
+
+    // ********** Athletes
+    static synchronized Athlete getAthlete(Athlete key)
+    {
+        return copyOf(athletesByKey.get(key.getKey()));
+    }
+
+    static synchronized Athlete getAthlete(int athleteId)
+    {
+        return copyOf(athletesById.get(athleteId));
+    }
+
+    static synchronized void putAthlete(Athlete athlete)
+    {
+        Athlete copy = copyOf(athlete);
+        athletesByKey.put(copy.getKey(), copy);
+        athletesById.put(copy.getId(), copy);
+    }
+
+    static synchronized void removeAthlete(Athlete athlete)
+    {
+        Athlete cached = athletesById.remove(athlete.getId());
+        if (cached != null) {
+            athletesByKey.remove(cached.getKey());
+        }
+        athletesByKey.remove(athlete.getKey());
+    }
+
+
+    // ********** Meets (Meet objects cannot be modified, so they are not copied)
+    static synchronized Meet getMeet(int meetId)        { return meetsById.get(meetId); }
+    static synchronized void putMeet(Meet meet)         { meetsById.put(meet.getId(), meet); }
+    static synchronized void removeMeet(int meetId)     { meetsById.remove(meetId); }
+
+
+    // ********** Teams
+    static synchronized Team getTeam(String teamCode)
+    {
+        return copyOf(teamsByCode.get(teamCode));
+    }
+
+    static synchronized Team getTeam(int teamId)
+    {
+        return copyOf(teamsById.get(teamId));
+    }
+
+    static synchronized void putTeam(Team team)
+    {
+        Team copy = copyOf(team);
+        teamsByCode.put(copy.getCode(), copy);
+        teamsById.put(copy.getId(), copy);
+    }
+
+
+    private static Athlete copyOf(Athlete athlete)
+    {
+        return athlete == null ? null : new Athlete(athlete.getId(), athlete.getName(), athlete.getGender(),
+                                                    athlete.getDob(), athlete.getTeamId(), athlete.getLastUpdate());
+    }
+
+    // The copy does not include the team's athletes.
+    private static Team copyOf(Team team)
+    {
+        return team == null ? null : new Team(team.getId(), team.getCode(), team.getName(), team.getLastUpdate());
+    }
+}
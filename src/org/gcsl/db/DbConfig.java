@@ -0,0 +1,16 @@
+package org.gcsl.db;
+
+// Settings shared by the DBO classes.  The app sets these from jgcsl.properties at start up.
+public class DbConfig
+{
+    private DbConfig() {}
+
+    private static int batchSize = 1000;   // rows per executeBatch() call
+    private static int cacheSize = 10000;  // max entries in each DbCache map
+
+    public static int  getBatchSize()          { return batchSize; }
+    public static int  getCacheSize()          { return cacheSize; }
+
+    public static void setBatchSize(int size)  { batchSize = Math.max(1, size); }
+    public static void setCacheSize(int size)  { cacheSize = Math.max(1, size); }
+}
@@ -0,0 +1,107 @@
+package org.gcsl.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+// A unit of work that runs a whole import in one DB transaction, so the DB syncs to disk once
+// per import instead of once per statement.  Each imported item (meet, team) runs inside its own
+// savepoint.  If an item fails, only that item's changes are rolled back and the import carries on.
+//
+//     try (DbTransaction transaction = new DbTransaction(db)) {
+//         for (...) { transaction.runItem("meet_" + n, () -> ...); }
+//         transaction.commit();
+//     }
+//
+// If the transaction is closed without commit() everything is rolled back.  DbCache is cleared
+// whenever changes are rolled back because it may hold rows that no longer exist.
+public class DbTransaction implements AutoCloseable
+{
+    // The DB work done for one item.  Return false if the item could not be written; its
+    // changes are then rolled back as if it had thrown an SQLException.
+    public interface ItemWork
+    {
+        boolean run() throws SQLException;
+    }
+
+    private final Connection db;
+    private final boolean    autoCommit;
+    private boolean          committed = false;
+    private int              numFailedItems = 0;
+
+
+    public DbTransaction(Connection db) throws SQLException
+    {
+        this.db         = db;
+        this.autoCommit = db.getAutoCommit();
+        db.setAutoCommit(false);
+    }
+
+
+    public int getNumFailedItems() { return numFailedItems; }
+
+
+    // The number of rows inserted, updated or deleted on the connection since it was opened
+    // (SQLite's total_changes()).  Rows that were rolled back afterwards are still counted.
+    public static long getTotalChanges(Connection db) throws SQLException
+    {
+        try (PreparedStatement pstmt = StatementCache.prepare(db, "SELECT total_changes()");
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+
+    // Run the work for one item in a savepoint.  Return true if the item was written, or false
+    // if the item failed and its changes were rolled back.  A RuntimeException (eg. bad data in
+    // the item) fails the item the same way as an SQLException.
+    public boolean runItem(String itemName, ItemWork work) throws SQLException
+    {
+        Savepoint savepoint = db.setSavepoint(itemName);
+        boolean   ok;
+
+        try {
+            ok = work.run();
+        }
+        catch (SQLException e) {
+            System.err.printf("ERROR - DB error writing %s, rolling it back: %s %n", itemName, e.getMessage());
+            ok = false;
+        }
+        catch (RuntimeException e) {
+            System.err.printf("ERROR - writing %s, rolling it back: %s %n", itemName, e);
+            ok = false;
+        }
+
+        if (! ok) {
+            db.rollback(savepoint);
+            DbCache.clear();
+            numFailedItems++;
+        }
+        db.releaseSavepoint(savepoint);
+        return ok;
+    }
+
+
+    public void commit() throws SQLException
+    {
+        db.commit();
+        committed = true;
+    }
+
+
+    @Override
+    public void close() throws SQLException
+    {
+        try {
+            if (! committed) {
+                db.rollback();
+                DbCache.clear();
+            }
+        }
+        finally {
+            db.setAutoCommit(autoCommit);
+        }
+    }
+}
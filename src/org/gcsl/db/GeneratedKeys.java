@@ -0,0 +1,52 @@
+package org.gcsl.db;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Read the row IDs generated by INSERT statements that were prepared with
+// Statement.RETURN_GENERATED_KEYS.
+class GeneratedKeys
+{
+    private GeneratedKeys() {}
+
+
+    // Return the ID generated by the last executeUpdate() of a single row.
+    static int getKey(PreparedStatement pstmt) throws SQLException
+    {
+        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+            if (! rs.next()) {
+                throw new SQLException("No generated key returned for the inserted row.");
+            }
+            return rs.getInt(1);
+        }
+    }
+
+
+    // Return the IDs generated by the last executeBatch() of numRows rows, in batch order.
+    // The SQLite driver only returns the ID of the last row (last_insert_rowid()).  The rows of
+    // a batch are inserted one after another on one connection, so SQLite gives them consecutive
+    // row IDs and the others can be counted back from the last one.
+    static int[] getBatchKeys(PreparedStatement pstmt, int numRows) throws SQLException
+    {
+        int[] keys    = new int[numRows];
+        int   numKeys = 0;
+
+        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+            while (numKeys < numRows  &&  rs.next()) {
+                keys[numKeys++] = rs.getInt(1);
+            }
+        }
+
+        if (numKeys == 1  &&  numRows > 1) {
+            int lastKey = keys[0];
+            for (int i = 0; i < numRows; i++) {
+                keys[i] = lastKey - numRows + 1 + i;
+            }
+        }
+        else if (numKeys != numRows) {
+            throw new SQLException("Expected " + numRows + " generated keys for the batch, got " + numKeys);
+        }
+        return keys;
+    }
+}
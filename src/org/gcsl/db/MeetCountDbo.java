@@ -0,0 +1,173 @@
+package org.gcsl.db;
+
+import org.gcsl.model.Athlete;
+import org.gcsl.model.AthleteMeetCount;
+import org.gcsl.model.Team;
+import org.gcsl.util.Metrics;
+import org.gcsl.util.Utils;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Athlete_Meet_Count holds, for each athlete credited with a meet, the number of meets and the
+// meet dates.  It is a copy of what can be computed from Athlete_Meet and Meets, kept up to date
+// as meets are credited and removed so reports don't have to aggregate Athlete_Meet.
+//   - credit() adds a meet to the athletes' counts, called along with the Athlete_Meet inserts.
+//   - when a meet's results are removed, the meet's athletes are found (findAthleteIds) before
+//     its Athlete_Meet rows are deleted, and their counts are recomputed afterwards (recompute).
+//   - remove() drops the row of a removed athlete.
+public class MeetCountDbo
+{
+    // The per-athlete aggregate of Athlete_Meet.  Meet dates are listed in the order the meets
+    // were credited.  Used by the migration that creates the table and by recompute().
+    // Removing an athlete leaves its Athlete_Meet rows behind, so only athletes still in the DB
+    // are counted.
+    static final String AGGREGATE_SQL =
+            "SELECT athlete_id, count(*), ifnull(group_concat(meet_date, ' '), '') " +
+            "FROM (SELECT am.athlete_id, m.meet_date FROM Athlete_Meet am " +
+            "      JOIN Athletes a ON a.id = am.athlete_id " +
+            "      LEFT JOIN Meets m ON m.id = am.meet_id %s ORDER BY am.athlete_id, am.rowid) " +
+            "GROUP BY athlete_id";
+
+
+    // Find the meet counts of all the DB athletes of the teams with one query (per
+    // StatementCache.IN_LIST_SIZE teams), keyed by athlete (name, dob, gender, team ID).
+    // Athletes with no meets have a count of 0.
+    public static Map<Athlete, AthleteMeetCount> findByTeams(Connection db, Collection<Team> teams) throws SQLException
+    {
+        Map<Athlete, AthleteMeetCount> meetCounts = new HashMap<>();
+        Map<Integer, String> teamCodes = new HashMap<>();
+
+        teams.forEach(team -> teamCodes.put(team.getId(), team.getCode()));
+        teamCodes.remove(Utils.INVALID_ID);
+        List<Integer> teamIds = new ArrayList<>(teamCodes.keySet());
+        String sql = "SELECT a.id, a.name, a.dob, a.gender, a.team_id, a.last_update, " +
+                     "ifnull(c.meet_count, 0) AS meet_count, " +
+                     "ifnull(c.meet_dates, '') AS meet_dates " +
+                     "FROM Athletes a LEFT JOIN Athlete_Meet_Count c ON c.athlete_id = a.id " +
+                     "WHERE a.team_id IN " + StatementCache.inList();
+
+        for (int from = 0; from < teamIds.size(); from += StatementCache.IN_LIST_SIZE) {
+            try (PreparedStatement pstmt = StatementCache.prepare(db, sql)) {
+                StatementCache.setInList(pstmt, 1, teamIds, from);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Athlete athlete = new Athlete(rs.getInt("id"), rs.getString("name"), rs.getString("gender"),
+                                                      rs.getString("dob"), rs.getInt("team_id"), rs.getString("last_update"));
+                        meetCounts.put(athlete, new AthleteMeetCount(athlete, teamCodes.get(athlete.getTeamId()),
+                                                                     rs.getInt("meet_count"), rs.getString("meet_dates")));
+                    }
+                }
+            }
+        }
+
+        return meetCounts;
+    }
+
+
+    // Give the athletes of the teams credit for one more meet on meetDate ('yyyy-mm-dd').
+    static void credit(Connection db, List<Team> teams, String meetDate) throws SQLException
+    {
+        String insertSql = "INSERT OR IGNORE INTO Athlete_Meet_Count (athlete_id, meet_count, meet_dates) VALUES (?, 0, '')";
+        String updateSql = "UPDATE Athlete_Meet_Count SET meet_count = meet_count + 1, " +
+                           "meet_dates = CASE WHEN meet_dates = '' THEN ? ELSE meet_dates || ' ' || ? END " +
+                           "WHERE athlete_id = ?";
+        int    batchSize = DbConfig.getBatchSize();
+        int    numRows = 0;
+
+        try (PreparedStatement insertStmt = StatementCache.prepare(db, insertSql);
+             PreparedStatement updateStmt = StatementCache.prepare(db, updateSql)) {
+            for (Team team : teams) {
+                for (Athlete athlete : team.getAthletes()) {
+                    insertStmt.setInt(1, athlete.getId());
+                    insertStmt.addBatch();
+                    updateStmt.setString(1, meetDate);
+                    updateStmt.setString(2, meetDate);
+                    updateStmt.setInt(3, athlete.getId());
+                    updateStmt.addBatch();
+
+                    if (++numRows % batchSize == 0) {
+                        insertStmt.executeBatch();
+                        updateStmt.executeBatch();
+                    }
+                }
+            }
+            insertStmt.executeBatch();
+            updateStmt.executeBatch();
+        }
+    }
+
+
+    // Remove the row of an athlete that is removed from the DB.
+    static void remove(Connection db, Athlete athlete) throws SQLException
+    {
+        String sql = "DELETE FROM Athlete_Meet_Count WHERE athlete_id = ?";
+
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql)) {
+            pstmt.setInt(1, athlete.getId());
+            pstmt.executeUpdate();
+        }
+    }
+
+
+    // Find the IDs of the athletes credited with a meet.
+    static List<Integer> findAthleteIds(Connection db, int meetId) throws SQLException
+    {
+        List<Integer> athleteIds = new ArrayList<>();
+        String sql = "SELECT DISTINCT athlete_id FROM Athlete_Meet WHERE meet_id = ?";
+
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql)) {
+            pstmt.setInt(1, meetId);
+
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                athleteIds.add(rs.getInt(1));
+            }
+        }
+        return athleteIds;
+    }
+
+
+    // Recompute the counts of the athletes from Athlete_Meet.  Athletes left without meets
+    // lose their row.
+    static void recompute(Connection db, List<Integer> athleteIds) throws SQLException
+    {
+        String deleteSql = "DELETE FROM Athlete_Meet_Count WHERE athlete_id = ?";
+        String insertSql = "INSERT INTO Athlete_Meet_Count (athlete_id, meet_count, meet_dates) " +
+                           String.format(AGGREGATE_SQL, "WHERE am.athlete_id = ?");
+
+        try (PreparedStatement deleteStmt = StatementCache.prepare(db, deleteSql);
+             PreparedStatement insertStmt = StatementCache.prepare(db, insertSql)) {
+            for (Integer athleteId : athleteIds) {
+                deleteStmt.setInt(1, athleteId);
+                deleteStmt.executeUpdate();
+                insertStmt.setInt(1, athleteId);
+                insertStmt.executeUpdate();
+            }
+        }
+    }
+
+
+    // Create and fill the table from Athlete_Meet (schema migration 3).  The statements only run
+    // once, so they are not cached but timed directly.
+    static void createTable(Connection db) throws SQLException
+    {
+        long startedAt = System.nanoTime();
+
+        try (Statement stmt = db.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS Athlete_Meet_Count (athlete_id INTEGER PRIMARY KEY, " +
+                         "meet_count INTEGER NOT NULL, meet_dates TEXT NOT NULL DEFAULT '')");
+            stmt.execute("DELETE FROM Athlete_Meet_Count");
+            stmt.execute("INSERT INTO Athlete_Meet_Count (athlete_id, meet_count, meet_dates) " +
+                         String.format(AGGREGATE_SQL, ""));
+        }
+        finally {
+            Metrics.recordTime("sql create and fill Athlete_Meet_Count", startedAt);
+        }
+    }
+}
@@ -8,7 +8,6 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 public class MeetDbo
 {
@@ -18,8 +17,8 @@ public class MeetDbo
         List<Meet> meets = new ArrayList<>();
         String sql = "SELECT * FROM Meets";
 
-        try(Statement stmt = db.createStatement();
-            ResultSet rs   = stmt.executeQuery(sql)) {
+        try(PreparedStatement pstmt = StatementCache.prepare(db, sql);
+            ResultSet rs = pstmt.executeQuery()) {
 
             Meet meet;
             while ((meet = makeMeetFromResultSet(rs)) != null) {
@@ -39,15 +38,18 @@ public class MeetDbo
     // Returns null if meet is not found.
     public static Meet findById(Connection db, int meetId) throws SQLException
     {
-        Meet meet = null;
+        Meet meet = DbCache.getMeet(meetId);
         String sql = "SELECT * FROM Meets WHERE id = ?";
 
-        if (meetId != Utils.INVALID_ID) {
-            try (PreparedStatement pstmt = db.prepareStatement(sql)){
+        if (meet == null  &&  meetId != Utils.INVALID_ID) {
+            try (PreparedStatement pstmt = StatementCache.prepare(db, sql)){
                 pstmt.setInt(1, meetId);
 
                 ResultSet rs = pstmt.executeQuery();
                 meet = makeMeetFromResultSet(rs);
+                if (meet != null) {
+                    DbCache.putMeet(meet);
+                }
             }
         }
 
@@ -98,10 +100,12 @@ public class MeetDbo
         String sql = "DELETE FROM Athlete_Meet WHERE meet_id = ?";
 
         if (meetId != Utils.INVALID_ID) {
-            try (PreparedStatement pstmt = db.prepareStatement(sql)){
+            List<Integer> athleteIds = MeetCountDbo.findAthleteIds(db, meetId);
+            try (PreparedStatement pstmt = StatementCache.prepare(db, sql)){
                 pstmt.setInt(1, meetId);
                 pstmt.executeUpdate();
             }
+            MeetCountDbo.recompute(db, athleteIds);
         }
     }
 
@@ -112,11 +116,12 @@ public class MeetDbo
     {
         String sql = "UPDATE Meets SET file_date = ? WHERE id = ? ";
 
-        try (PreparedStatement pstmt = db.prepareStatement(sql)){
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql)){
             pstmt.setString(1, meet.getResultsFileDate());
             pstmt.setInt(2, meetId);
 
             pstmt.executeUpdate();
+            DbCache.removeMeet(meetId);   // file_date and last_update have changed
             OrphanDbo.insert(db, meet.getOrphans(), meetId);
             creditAthletesForMeet(db, meet, meetId);
         }
@@ -131,9 +136,8 @@ public class MeetDbo
             System.err.println("WARNING:  meet ID is INVALID, no credit for meet results.");
         }
         else {
-            for (Team team : meetResults.getTeams()) {
-                insertAthleteMeet(db, team.getAthletes(), meetId);
-             }
+            insertAthleteMeet(db, meetResults.getTeams(), meetId);
+            MeetCountDbo.credit(db, meetResults.getTeams(), meetResults.getDate().toString());
         }
     }
 
@@ -158,7 +162,7 @@ public class MeetDbo
         String meetDateStr = meetDate.format( DateTimeFormatter.ofPattern("yyyy-MM-dd") );
         String sql = "SELECT * FROM Meets WHERE team1_id = ? AND team2_id = ? AND meet_date = ?";
 
-        try (PreparedStatement pstmt = db.prepareStatement(sql)){
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql)){
             pstmt.setInt(1, id1);
             pstmt.setInt(2, id2);
             pstmt.setString(3, meetDateStr);
@@ -170,17 +174,27 @@ public class MeetDbo
     }
 
 
-    private static void insertAthleteMeet(Connection db, Set<Athlete> athletes, int meetId) throws SQLException
+    // Insert the Athlete-Meet rows for the athletes of all the teams in a meet.  The rows for the
+    // whole meet go through one statement, in batches of DbConfig.getBatchSize().
+    private static void insertAthleteMeet(Connection db, List<Team> teams, int meetId) throws SQLException
     {
         String sql = "INSERT INTO Athlete_Meet (athlete_id, meet_id) VALUES ( ?, ? )";
-
-        try (PreparedStatement pstmt = db.prepareStatement(sql)){
-            for (Athlete athlete : athletes) {
-                pstmt.setInt(1, athlete.getId());
-                pstmt.setInt(2, meetId);
-
-                pstmt.executeUpdate();
+        int    batchSize = DbConfig.getBatchSize();
+        int    numRows = 0;
+
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql)){
+            for (Team team : teams) {
+                for (Athlete athlete : team.getAthletes()) {
+                    pstmt.setInt(1, athlete.getId());
+                    pstmt.setInt(2, meetId);
+                    pstmt.addBatch();
+
+                    if (++numRows % batchSize == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
             }
+            pstmt.executeBatch();
         }
     }
 
@@ -194,7 +208,7 @@ public class MeetDbo
         int    team1Id = meetResults.getTeams().get(0).getId();
         int    team2Id = meetResults.getTeams().get(1).getId();
 
-        try (PreparedStatement pstmt = db.prepareStatement(sql)){
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql, Statement.RETURN_GENERATED_KEYS)){
             pstmt.setString(1, meetResults.getDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
             pstmt.setString(2, meetResults.getResultsFileDate());
             pstmt.setInt(3, team1Id);
@@ -202,10 +216,8 @@ public class MeetDbo
             pstmt.setString(5, meetResults.getResultsScenario().toString());
 
             pstmt.executeUpdate();
+            return GeneratedKeys.getKey(pstmt);
         }
-
-        Meet dbMeet = findMeetByTeamIds(db, team1Id, team2Id, meetResults.getDate());
-        return dbMeet.getId();
     }
 
 
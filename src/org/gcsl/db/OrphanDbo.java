@@ -15,8 +15,8 @@ public class OrphanDbo
         List<Orphan> orphans = new ArrayList<>();
 
         String    sql = "SELECT * from Orphans Order by team_id, meet_id, name";
-        try(Statement stmt = db.createStatement();
-            ResultSet rs   = stmt.executeQuery(sql)) {
+        try(PreparedStatement pstmt = StatementCache.prepare(db, sql);
+            ResultSet rs = pstmt.executeQuery()) {
 
             while(rs.next()) {
                 String dob    = rs.getString("dob");
@@ -40,11 +40,14 @@ public class OrphanDbo
     }
 
 
+    // Insert the orphans from a meet.  The rows are sent in batches of DbConfig.getBatchSize().
     public static void insert(Connection db, List<Athlete> orphans, int meetId) throws SQLException
     {
         String sql = "INSERT INTO Orphans (team_id, name, dob, gender, meet_id) VALUES ( ?, ?, ?, ?, ? )";
+        int    batchSize = DbConfig.getBatchSize();
+        int    numRows = 0;
 
-        try (PreparedStatement pstmt = db.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql)) {
 
             for (Athlete orphan : orphans) {
                 pstmt.setInt(1, orphan.getTeamId());
@@ -52,9 +55,13 @@ public class OrphanDbo
                 pstmt.setString(3, orphan.getDob());
                 pstmt.setString(4, orphan.getGender());
                 pstmt.setInt(5, meetId);
+                pstmt.addBatch();
 
-                pstmt.executeUpdate();
+                if (++numRows % batchSize == 0) {
+                    pstmt.executeBatch();
+                }
             }
+            pstmt.executeBatch();
         }
     }
 
@@ -64,7 +71,7 @@ public class OrphanDbo
         String sql = "DELETE FROM Orphans WHERE meet_id = ?";
 
         if (meetId != Utils.INVALID_ID) {
-            try (PreparedStatement pstmt = db.prepareStatement(sql)){
+            try (PreparedStatement pstmt = StatementCache.prepare(db, sql)){
                 pstmt.setInt(1, meetId);
                 pstmt.executeUpdate();
             }
@@ -0,0 +1,105 @@
+package org.gcsl.db;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+// Bring the DB schema up to date.  The schema version is kept in the schema_version table, one
+// row per applied migration.  MIGRATIONS holds the migrations in order, migration N (1-based)
+// moves the schema from version N-1 to version N.  Each migration runs in its own transaction
+// together with its schema_version row, so a failed migration leaves the DB at the previous version.
+//
+// Migrations must only ever be appended.  Migration 1 uses IF NOT EXISTS so DBs created before
+// schema_version existed are adopted as they are.  migrate() on an empty DB creates the whole
+// schema, which is how test and benchmark DBs are made.
+public class SchemaMigrator
+{
+    private SchemaMigrator() {}
+
+    interface Migration
+    {
+        void apply(Connection db) throws SQLException;
+    }
+
+    private static final List<Migration> MIGRATIONS = Arrays.asList(
+        SchemaMigrator::createBaseTables,     // 1
+        DbBootstrap::createIndexes,           // 2
+        MeetCountDbo::createTable             // 3
+    );
+
+
+    public static int getLatestVersion() { return MIGRATIONS.size(); }
+
+
+    // Return the schema version of the DB, 0 if no migration has been applied.
+    public static int getVersion(Connection db) throws SQLException
+    {
+        try (Statement stmt = db.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version " +
+                         "(version INTEGER PRIMARY KEY, applied TEXT DEFAULT CURRENT_TIMESTAMP)");
+            try (ResultSet rs = stmt.executeQuery("SELECT max(version) FROM schema_version")) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+
+    // Apply all the migrations the DB does not have yet.
+    // Throw an SQLException if a migration fails, the DB is then left at the last good version.
+    public static void migrate(Connection db) throws SQLException
+    {
+        int     version    = getVersion(db);
+        boolean autoCommit = db.getAutoCommit();
+
+        if (version > getLatestVersion()) {
+            System.err.printf("WARNING - DB schema version %d is newer than this program (%d). %n",
+                              version, getLatestVersion());
+        }
+
+        try {
+            db.setAutoCommit(false);
+            while (version < getLatestVersion()) {
+                int newVersion = version + 1;
+                System.out.printf("SchemaMigrator: migrating DB schema to version %d %n", newVersion);
+
+                try (Statement stmt = db.createStatement()) {
+                    MIGRATIONS.get(version).apply(db);
+                    stmt.executeUpdate("INSERT INTO schema_version (version) VALUES (" + newVersion + ")");
+                    db.commit();
+                }
+                catch (SQLException e) {
+                    db.rollback();
+                    throw new SQLException("Migration to schema version " + newVersion + " failed: " + e.getMessage(), e);
+                }
+                version = newVersion;
+            }
+        }
+        finally {
+            db.setAutoCommit(autoCommit);
+        }
+    }
+
+
+    // ********** Migrations
+    // 1 - the registrar tables.  last_update of a meet is set by a trigger whenever it is updated.
+    private static void createBaseTables(Connection db) throws SQLException
+    {
+        try (Statement stmt = db.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS Teams (id INTEGER PRIMARY KEY AUTOINCREMENT, code TEXT, name TEXT, " +
+                         "last_update TEXT DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("CREATE TABLE IF NOT EXISTS Athletes (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT, dob TEXT, " +
+                         "gender TEXT, team_id INTEGER, last_update TEXT DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("CREATE TABLE IF NOT EXISTS Meets (id INTEGER PRIMARY KEY AUTOINCREMENT, meet_date TEXT, " +
+                         "file_date TEXT, team1_id INTEGER, team2_id INTEGER, result_type TEXT, " +
+                         "last_update TEXT DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("CREATE TABLE IF NOT EXISTS Athlete_Meet (athlete_id INTEGER, meet_id INTEGER)");
+            stmt.execute("CREATE TABLE IF NOT EXISTS Orphans (id INTEGER PRIMARY KEY AUTOINCREMENT, team_id INTEGER, " +
+                         "name TEXT, dob TEXT, gender TEXT, meet_id INTEGER)");
+            stmt.execute("CREATE TRIGGER IF NOT EXISTS meets_last_update AFTER UPDATE OF file_date ON Meets " +
+                         "BEGIN UPDATE Meets SET last_update = CURRENT_TIMESTAMP WHERE id = NEW.id; END");
+        }
+    }
+}
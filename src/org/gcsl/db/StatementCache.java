@@ -0,0 +1,231 @@
+package org.gcsl.db;
+
+import org.gcsl.util.Metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cache of the prepared statements used by the DBOs, so each SQL string is compiled once per
+// connection instead of on every call.
+//
+// prepare() hands out a statement whose close() puts it back in the cache instead of closing
+// it, so the DBOs keep their try-with-resources blocks.  Putting it back closes the ResultSet
+// from the last executeQuery() and clears the parameters and batch.  If the same statement is
+// still in use (eg. a nested call with the same SQL, or another thread), an ordinary uncached
+// statement is returned, so a JDBC statement is never used by two threads at once.
+// closeAll() closes the real statements of a connection and must be called before the
+// connection is closed.
+//
+// Statements are cached by SQL, so the SQL must come from a fixed set of strings.  A query on a
+// variable number of values uses IN_LIST_SIZE parameters (inList() and setInList()) and is run
+// once per IN_LIST_SIZE values.
+//
+// Each use of a cached statement, from prepare() until it is put back (so reading the results
+// is included), is recorded in a Metrics timer named after the statement's SQL.
+public class StatementCache
+{
+    private StatementCache() {}
+
+    private static final Map<Connection, Map<StatementKey, CachedStatement>> statements = new IdentityHashMap<>();
+
+    private static final AtomicLong hits   = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+
+    // The number of parameters in an inList()
+    static final int IN_LIST_SIZE = 8;
+
+
+    public static long getHits()   { return hits.get(); }
+    public static long getMisses() { return misses.get(); }
+
+    // The number of statements cached for the connection.
+    static int getNumStatements(Connection db)
+    {
+        synchronized (statements) {
+            Map<StatementKey, CachedStatement> connStatements = statements.get(db);
+            return (connStatements != null ? connStatements.size() : 0);
+        }
+    }
+
+
+    // Close all the cached statements of the connection.
+    public static void closeAll(Connection db)
+    {
+        Map<StatementKey, CachedStatement> connStatements;
+        synchronized (statements) {
+            connStatements = statements.remove(db);
+        }
+
+        if (connStatements != null) {
+            for (CachedStatement cached : connStatements.values()) {
+                try {
+                    cached.pstmt.close();
+                }
+                catch (SQLException e) {
+                    System.err.println("ERROR - closing cached statement: " + e.getMessage());
+                }
+            }
+            System.out.printf("StatementCache: closed %d statements, hits=%d, misses=%d %n",
+                              connStatements.size(), hits.get(), misses.get());
+        }
+    }
+
+
+    // "(?, ?, ...)" with IN_LIST_SIZE parameters
+    static String inList()
+    {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < IN_LIST_SIZE; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.append(")").toString();
+    }
+
+
+    // Set the parameters of an inList(), starting at parameter firstParam, to the values from
+    // values[from] on.  If fewer than IN_LIST_SIZE values are left, the last one is repeated.
+    static void setInList(PreparedStatement pstmt, int firstParam, List<Integer> values, int from) throws SQLException
+    {
+        for (int i = 0; i < IN_LIST_SIZE; i++) {
+            pstmt.setInt(firstParam + i, values.get(Math.min(from + i, values.size() - 1)));
+        }
+    }
+
+
+    static PreparedStatement prepare(Connection db, String sql) throws SQLException
+    {
+        return prepare(db, sql, Statement.NO_GENERATED_KEYS);
+    }
+
+
+    // autoGeneratedKeys is Statement.RETURN_GENERATED_KEYS or Statement.NO_GENERATED_KEYS
+    static PreparedStatement prepare(Connection db, String sql, int autoGeneratedKeys) throws SQLException
+    {
+        StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+
+        synchronized (statements) {
+            Map<StatementKey, CachedStatement> connStatements = statements.computeIfAbsent(db, k -> new HashMap<>());
+            CachedStatement cached = connStatements.get(key);
+
+            if (cached != null  &&  cached.inUse) {
+                misses.incrementAndGet();
+                return db.prepareStatement(sql, autoGeneratedKeys);
+            }
+            if (cached != null  &&  ! cached.pstmt.isClosed()) {
+                hits.incrementAndGet();
+                return cached.acquire();
+            }
+
+            misses.incrementAndGet();
+            cached = new CachedStatement(db.prepareStatement(sql, autoGeneratedKeys), sql);
+            connStatements.put(key, cached);
+            return cached.acquire();
+        }
+    }
+
+
+    private static class CachedStatement implements InvocationHandler
+    {
+        final PreparedStatement pstmt;
+        final PreparedStatement proxy;
+        volatile boolean        inUse;
+        private final String    metricName;
+        private long            acquiredAt;
+        private ResultSet       lastResultSet;
+
+        CachedStatement(PreparedStatement pstmt, String sql)
+        {
+            this.pstmt      = pstmt;
+            this.metricName = "sql " + sql.replaceAll("\\s+", " ").trim();
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(StatementCache.class.getClassLoader(),
+                                                                    new Class<?>[] { PreparedStatement.class },
+                                                                    this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            if (method.getName().equals("close")  &&  method.getParameterCount() == 0) {
+                release();
+                return null;
+            }
+
+            try {
+                Object result = method.invoke(pstmt, args);
+                if (method.getName().equals("executeQuery")) {
+                    lastResultSet = (ResultSet) result;
+                }
+                return result;
+            }
+            catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        PreparedStatement acquire()
+        {
+            inUse      = true;
+            acquiredAt = System.nanoTime();
+            return proxy;
+        }
+
+        private void release() throws SQLException
+        {
+            try {
+                if (lastResultSet != null) {
+                    lastResultSet.close();
+                    lastResultSet = null;
+                }
+                pstmt.clearParameters();
+                pstmt.clearBatch();
+            }
+            finally {
+                Metrics.recordTime(metricName, acquiredAt);
+                inUse = false;
+            }
+        }
+    }
+
+
+    private static class StatementKey
+    {
+        private final String sql;
+        private final int    autoGeneratedKeys;
+
+        StatementKey(String sql, int autoGeneratedKeys)
+        {
+            this.sql               = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (o == this)                      return true;
+            if (! (o instanceof StatementKey))  return false;
+
+            StatementKey rhs = (StatementKey) o;
+            return autoGeneratedKeys == rhs.autoGeneratedKeys  &&  sql.equals(rhs.sql);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(sql, autoGeneratedKeys);
+        }
+    }
+}
@@ -27,8 +27,8 @@ public class TeamDbo {
         List<Team> teams = new ArrayList<>();
         String sql = "SELECT * FROM Teams";
 
-        try (Statement stmt = db.createStatement();
-             ResultSet rs   = stmt.executeQuery(sql)) {
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql);
+             ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
                 String code = rs.getString("code");
@@ -53,10 +53,14 @@ public class TeamDbo {
     // Throw an SQLException if there is a DB error
     public static Team findByCode(Connection db, String teamCode) throws SQLException
     {
-        Team   dbTeam = null;
+        Team   dbTeam = DbCache.getTeam(teamCode);
         String sql = "SELECT * FROM Teams WHERE Code = ?";
 
-        try (PreparedStatement pstmt = db.prepareStatement(sql)) {
+        if (dbTeam != null) {
+            return dbTeam;
+        }
+
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql)) {
              pstmt.setString(1, teamCode);
              ResultSet rs = pstmt.executeQuery();
 
@@ -67,6 +71,7 @@ public class TeamDbo {
                 String lastUpdate = rs.getString("last_update");
 
                 dbTeam = new Team(id, code, name, lastUpdate);
+                DbCache.putTeam(dbTeam);
             }
         }
 
@@ -79,11 +84,11 @@ public class TeamDbo {
     // Throw an SQLException if there is a DB error
     public static Team findById(Connection db, int teamId) throws SQLException
     {
-        Team team = null;
+        Team team = DbCache.getTeam(teamId);
         String sql = "SELECT * FROM Teams WHERE id = ?";
 
-        if (teamId != Utils.INVALID_ID) {
-            try (PreparedStatement pstmt = db.prepareStatement(sql)){
+        if (team == null  &&  teamId != Utils.INVALID_ID) {
+            try (PreparedStatement pstmt = StatementCache.prepare(db, sql)){
                 pstmt.setInt(1, teamId);
 
                 ResultSet rs = pstmt.executeQuery();
@@ -94,6 +99,7 @@ public class TeamDbo {
                     String lastUpdate = rs.getString("last_update");
 
                     team = new Team(id, code, name, lastUpdate);
+                    DbCache.putTeam(team);
                 }
             }
         }
@@ -102,19 +108,21 @@ public class TeamDbo {
     }
 
 
-    // Insert a team into the DB.  Return the inserted team which now contains an ID.
+    // Insert a team into the DB and set the team's ID to the new DB ID.  Return the inserted team
+    // as find() would:  read back by its ID, so last_update is the DB's, and without its athletes.
     // Throw SQLException if there is an SQL error.
     public static Team insert(Connection db, Team team) throws SQLException
     {
         String sql = "INSERT INTO Teams (name, code) VALUES ( ?, ? )";
 //        System.out.println("TeamDbo::insert - " + sql);
-        try (PreparedStatement pstmt = db.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, team.getName());
             pstmt.setString(2, team.getCode());
             pstmt.executeUpdate();
 
-            return find(db, team);
+            team.setId(GeneratedKeys.getKey(pstmt));
         }
+        return findById(db, team.getId());
     }
 
 
@@ -126,7 +134,7 @@ public class TeamDbo {
         System.out.printf("TeamDbo::retrieveAthletes for team %d %n", teamId);
 
         if (teamId != Utils.INVALID_ID) {
-            try (PreparedStatement pstmt = db.prepareStatement(sql)){
+            try (PreparedStatement pstmt = StatementCache.prepare(db, sql)){
                 pstmt.setInt(1, teamId);
 
                 ResultSet rs = pstmt.executeQuery();
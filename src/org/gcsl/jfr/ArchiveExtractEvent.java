@@ -0,0 +1,30 @@
+package org.gcsl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Reading an SDIF file out of a ZIP archive.  The entry is streamed, so the event lasts from
+// opening the archive until the entry's stream is closed.
+@Name("org.gcsl.ArchiveExtract")
+@Label("Archive Extract")
+@Category({"GCSL", "Import"})
+@Description("An SDIF file read out of a ZIP archive")
+public class ArchiveExtractEvent extends GcslEvent
+{
+    @Label("Archive")
+    public String archiveName;
+
+    @Label("File")
+    public String fileName;
+
+    @Label("Compressed Size")
+    @DataAmount
+    public long compressedSize;
+
+    @Label("Size")
+    @DataAmount
+    public long size;
+}
@@ -0,0 +1,18 @@
+package org.gcsl.jfr;
+
+import jdk.jfr.Event;
+
+// Base class for the GCSL Java Flight Recorder events, so a recording shows the imports and
+// reports next to the JVM's own GC and I/O events.  The events start when they are created and
+// are only written when the recording has them enabled, so they are cheap to leave in.
+//
+// To record an import:
+//     java -XX:StartFlightRecording=filename=gcsl.jfr,settings=profile org.gcsl.GcslBatch ...
+// The JFR API (jdk.jfr) is part of Java 11 and of OpenJDK 8 from update 262.
+public abstract class GcslEvent extends Event
+{
+    protected GcslEvent()
+    {
+        begin();
+    }
+}
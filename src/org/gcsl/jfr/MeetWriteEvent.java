@@ -0,0 +1,35 @@
+package org.gcsl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Writing one meet's results to the DB in ResultsToDbTask.
+@Name("org.gcsl.MeetWrite")
+@Label("Meet Write")
+@Category({"GCSL", "DB"})
+@Description("The results of one meet written to the DB")
+public class MeetWriteEvent extends GcslEvent
+{
+    @Label("Meet")
+    public String meetName;
+
+    @Label("Meet Date")
+    public String meetDate;
+
+    @Label("Athlete Count")
+    @Description("Athletes in the results, orphans included")
+    public int athleteCount;
+
+    @Label("Orphan Count")
+    public int orphanCount;
+
+    @Label("Rows Written")
+    @Description("Rows inserted, updated or deleted for the meet")
+    public long rowsWritten;
+
+    @Label("Written")
+    @Description("False if the meet failed and was rolled back")
+    public boolean written;
+}
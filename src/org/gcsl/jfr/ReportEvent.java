@@ -0,0 +1,24 @@
+package org.gcsl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Writing one of the Reports.
+@Name("org.gcsl.Report")
+@Label("Report")
+@Category({"GCSL", "Report"})
+@Description("A report written to the reports directory")
+public class ReportEvent extends GcslEvent
+{
+    @Label("Report")
+    public String reportName;
+
+    @Label("File")
+    public String fileName;
+
+    @Label("Rows Written")
+    @Description("Athletes, orphans or teams written to the report")
+    public int rowsWritten;
+}
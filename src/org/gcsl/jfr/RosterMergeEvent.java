@@ -0,0 +1,31 @@
+package org.gcsl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Merging a new team roster with the roster in the DB in RostersToDbTask.
+@Name("org.gcsl.RosterMerge")
+@Label("Roster Merge")
+@Category({"GCSL", "DB"})
+@Description("A new team roster merged with the roster in the DB")
+public class RosterMergeEvent extends GcslEvent
+{
+    @Label("Team")
+    public String teamName;
+
+    @Label("Athlete Count")
+    @Description("Athletes on the new roster")
+    public int athleteCount;
+
+    @Label("Athletes Added")
+    public int athletesAdded;
+
+    @Label("Athletes Deleted")
+    public int athletesDeleted;
+
+    @Label("Rows Written")
+    @Description("Rows inserted, updated or deleted for the merge")
+    public long rowsWritten;
+}
@@ -0,0 +1,29 @@
+package org.gcsl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Parsing an SDIF file with an SdifReader, from opening the file until the reader is closed.
+@Name("org.gcsl.SdifParse")
+@Label("SDIF Parse")
+@Category({"GCSL", "Import"})
+@Description("An SDIF file read into records")
+public class SdifParseEvent extends GcslEvent
+{
+    @Label("File")
+    public String fileName;
+
+    @Label("Format")
+    public String format;
+
+    @Label("File Size")
+    @Description("The file length, or -1 when the file is streamed from an archive")
+    @DataAmount
+    public long fileSize;
+
+    @Label("Record Count")
+    public int recordCount;
+}
@@ -1,17 +1,20 @@
 package org.gcsl.model;
 
 import org.gcsl.sdif.SdifException;
+import org.gcsl.sdif.SdifField;
 import org.gcsl.sdif.SdifRec;
 import org.gcsl.util.Utils;
 
 public class Athlete
 {
-    private String dob;                          // date of birth ('yyyy-mm-dd')
-    private String gender;                       // 'M' or 'F'
-    private int    id = Utils.INVALID_ID;        // athlete ID in DB
-    private String lastUpdate = "";              // database update timestamp
-    private String name;                         // Athlete's name (last, first [m])
-    private int    teamId = Utils.INVALID_ID;    // ID of team athlete belongs to
+    private String     dob;                          // date of birth ('yyyy-mm-dd')
+    private String     gender;                       // 'M' or 'F'
+    private int        hash;                         // cached hashCode, 0 until computed
+    private int        id = Utils.INVALID_ID;        // athlete ID in DB
+    private AthleteKey key;                          // cached key, null until needed
+    private String     lastUpdate = "";              // database update timestamp
+    private String     name;                         // Athlete's name (last, first [m])
+    private int        teamId = Utils.INVALID_ID;    // ID of team athlete belongs to
 
     private static final int NO_SHOW_ID = -2;
 
@@ -58,9 +61,29 @@ public class Athlete
     public String getName()       { return name; }
     public int    getTeamId()     { return teamId; }
 
+    // The athlete's identifying fields as a key for maps and sets.  The key is made once and
+    // kept until the athlete's team changes.
+    public AthleteKey getKey()
+    {
+        if (key == null) {
+            key = new AthleteKey(name, gender, dob, teamId);
+        }
+        return key;
+    }
+
     // ********** Public Setters
     public void setId(int id)         { this.id = id; }
-    public void setTeamId(int teamId) { this.teamId = teamId; }
+
+    // The team ID is part of the hash and the key, so both are recomputed when it changes.  An
+    // athlete must not change teams while it is in a hashed collection.
+    public void setTeamId(int teamId)
+    {
+        if (teamId != this.teamId) {
+            this.teamId = teamId;
+            this.hash   = 0;
+            this.key    = null;
+        }
+    }
 
     @Override
     public boolean equals(Object o) {
@@ -72,31 +95,35 @@ public class Athlete
         return dob.equals(rhs.dob)  &&  gender.equals(rhs.gender)  &&  name.equals(rhs.name)  &&  teamId == rhs.teamId;
     }
 
+    // The hash is computed from the fields without allocating and cached, like String's.
     @Override
     public int hashCode() {
-        String hashString = makeHash();
-        return hashString.hashCode();
+        int h = hash;
+        if (h == 0) {
+            h = AthleteKey.hash(name, gender, dob, teamId);
+            hash = h;
+        }
+        return h;
     }
 
     @Override
-    public String toString() { return makeHash(); }
-
-    private String makeHash() {
+    public String toString() {
         return name + ":" + dob + ":" + gender + ":" + Integer.toString(teamId);
     }
 
 
     private static Athlete popFromHy3Data(SdifRec rec) throws SdifException
     {
-        String dob, gender, fname, lname, mi, name;
+        String dob, gender, name;
 
-        String sdifData = rec.getDataBuf();
-        dob    = Utils.makeDateString(sdifData.substring(88, 96));
-        gender = sdifData.substring(2, 3);
-        fname  = sdifData.substring(28, 48).trim();
-        lname  = sdifData.substring(8, 28).trim();
-        mi     = sdifData.substring(68, 69).trim();
-        name   = (lname + ", " + fname + " " + mi).trim();
+        dob    = Utils.makeDateString(rec.rawField(88, 8));
+        gender = rec.rawField(2, 1).toString();
+        name   = new StringBuilder().append(rec.field(8, 20))      // last name
+                                    .append(", ")
+                                    .append(rec.field(28, 20))     // first name
+                                    .append(' ')
+                                    .append(rec.field(68, 1))      // middle initial
+                                    .toString().trim();
 
         if (name.length() < 3 || dob.length() != 10 || gender.length() != 1) {
             throw new SdifException("Invalid Athlete Data");
@@ -136,10 +163,9 @@ public class Athlete
         else {
             String dob, gender, name;
 
-            String sdifData = rec.getDataBuf();
-            dob    = Utils.makeDateString(sdifData.substring(dobIdx, dobIdx+dobLen));
-            gender = sdifData.substring(genderIdx, genderIdx+genderLen);
-            name   = sdifData.substring(nameIdx, nameIdx+nameLen).trim().replaceAll(" +", " ");
+            dob    = Utils.makeDateString(rec.rawField(dobIdx, dobLen));
+            gender = rec.rawField(genderIdx, genderLen).toString();
+            name   = rec.field(nameIdx, nameLen).toCollapsedString();
 
             if (name.length() < 3 || dob.length() != 10 || gender.length() != 1) {
                 throw new SdifException("Invalid Athlete Data");
@@ -152,9 +178,9 @@ public class Athlete
             if (checkForNoShow) {
                 int timeIdx = 115;
                 int timeLen = 8;
-                String finalsTime = sdifData.substring(timeIdx, timeIdx+timeLen).trim();
+                SdifField finalsTime = rec.field(timeIdx, timeLen);
 
-                if (finalsTime.equals("NS") ||  finalsTime.equals("SCR")) {
+                if (finalsTime.contentEquals("NS") ||  finalsTime.contentEquals("SCR")) {
                     newAthlete.setId(NO_SHOW_ID);
                 }
             }
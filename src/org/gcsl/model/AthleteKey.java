@@ -0,0 +1,49 @@
+package org.gcsl.model;
+
+// The fields that identify an athlete (name, gender, dob and teamId), used to key maps and sets
+// without holding whole Athlete objects.  A key is immutable and its hash is computed once when
+// it is created.  Two athletes are equal exactly when their keys are equal.
+public final class AthleteKey
+{
+    private final String dob;
+    private final String gender;
+    private final int    hash;
+    private final String name;
+    private final int    teamId;
+
+    public AthleteKey(String name, String gender, String dob, int teamId)
+    {
+        this.name   = name;
+        this.gender = gender;
+        this.dob    = dob;
+        this.teamId = teamId;
+        this.hash   = hash(name, gender, dob, teamId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)                    return true;
+        if (! (o instanceof AthleteKey))  return false;
+
+        AthleteKey rhs = (AthleteKey) o;
+        return hash == rhs.hash  &&  teamId == rhs.teamId  &&
+               dob.equals(rhs.dob)  &&  gender.equals(rhs.gender)  &&  name.equals(rhs.name);
+    }
+
+    @Override
+    public int hashCode() { return hash; }
+
+    @Override
+    public String toString() { return name + ":" + dob + ":" + gender + ":" + teamId; }
+
+
+    // The hash of an athlete's identifying fields, shared with Athlete.hashCode().  It only uses
+    // the Strings' own (cached) hashes, so it does not allocate.
+    static int hash(String name, String gender, String dob, int teamId)
+    {
+        int h = name.hashCode();
+        h = 31 * h + dob.hashCode();
+        h = 31 * h + gender.hashCode();
+        return 31 * h + teamId;
+    }
+}
@@ -0,0 +1,23 @@
+package org.gcsl.model;
+
+// The number of meets an athlete has been credited with and the dates of those meets.
+public class AthleteMeetCount
+{
+    private Athlete athlete;
+    private int     meetCount;
+    private String  meetDates;   // meet dates ('yyyy-mm-dd') separated by a blank
+    private String  teamCode;
+
+    public AthleteMeetCount(Athlete athlete, String teamCode, int meetCount, String meetDates)
+    {
+        this.athlete   = athlete;
+        this.meetCount = meetCount;
+        this.meetDates = meetDates == null ? "" : meetDates;
+        this.teamCode  = teamCode;
+    }
+
+    public Athlete getAthlete()   { return athlete; }
+    public int     getMeetCount() { return meetCount; }
+    public String  getMeetDates() { return meetDates; }
+    public String  getTeamCode()  { return teamCode; }
+}
@@ -10,6 +10,8 @@ public class MeetInfo
     private LocalDate date;
     private String    name;
 
+    private static final DateTimeFormatter MEET_DATE_FORMAT = DateTimeFormatter.ofPattern("MMddyyyy");
+
     public MeetInfo(LocalDate date, String name)
     {
         this.date = date;
@@ -29,21 +31,15 @@ public class MeetInfo
     public String    getName() { return name; }
 
     private static MeetInfo popFromHy3Data(SdifRec rec) {
-        String sdifData = rec.getDataBuf();
-        String dateStr = sdifData.substring(92, 100).trim();
-        LocalDate date = LocalDate.parse(dateStr,
-                                         DateTimeFormatter.ofPattern("MMddyyyy"));
-        String name = sdifData.substring(2, 32).trim();
+        LocalDate date = LocalDate.parse(rec.field(92, 8), MEET_DATE_FORMAT);
+        String name = rec.field(2, 30).toString();
 
         return new MeetInfo(date, name);
     }
     private static MeetInfo popFromSdifData(SdifRec rec)
     {
-        String sdifData = rec.getDataBuf();
-        String dateStr = sdifData.substring(121, 129).trim();
-        LocalDate date = LocalDate.parse(dateStr,
-                                         DateTimeFormatter.ofPattern("MMddyyyy"));
-        String name = sdifData.substring(11, 41).trim();
+        LocalDate date = LocalDate.parse(rec.field(121, 8), MEET_DATE_FORMAT);
+        String name = rec.field(11, 30).toString();
 
         return new MeetInfo(date, name);
     }
@@ -32,12 +32,12 @@ public class Relay
     // Factory method to create a Team object from SDIF data
     public static Relay fromSdifData(SdifRec rec)
     {
-        String sdifData  = rec.getDataBuf();
-        String finalTime = sdifData.substring(72, 80).trim();
-        boolean noShow   = finalTime.equals("NS");
-        String relayName = sdifData.substring(11, 12);         // 'A', 'B', 'C', etc.
-        String teamCode  = sdifData.substring(12, 18).trim();
+        boolean noShow = rec.field(72, 8).contentEquals("NS");
+        String  name   = new StringBuilder().append(rec.field(12, 6))            // team code
+                                            .append('-')
+                                            .append(rec.rawField(11, 1))         // 'A', 'B', 'C', etc.
+                                            .toString();
 
-        return  new Relay(teamCode + "-" + relayName, noShow);
+        return  new Relay(name, noShow);
     }
 }
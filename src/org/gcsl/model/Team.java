@@ -28,17 +28,15 @@ public class Team
     // Factory method to create a Team object from SDIF data
     public static Team fromHy3Data(SdifRec rec)
     {
-        String sdifData = rec.getDataBuf();
-        String code = sdifData.substring(2, 7).trim();
-        String name = sdifData.substring(7, 37).trim();
+        String code = rec.field(2, 5).toString();
+        String name = rec.field(7, 30).toString();
 
         return new Team(Utils.INVALID_ID, code, name, "");
     }
     public static Team fromSdifData(SdifRec rec)
     {
-        String sdifData = rec.getDataBuf();
-        String code = sdifData.substring(13, 17).trim();
-        String name = sdifData.substring(17, 47).trim();
+        String code = rec.field(13, 4).toString();
+        String name = rec.field(17, 30).toString();
 
         return new Team(Utils.INVALID_ID, code, name, "");
     }
@@ -75,8 +73,9 @@ public class Team
     {
         id = newId;
 
-        // It's a "no-no" to update items in a Hash, so we must create a new one
-        Set<Athlete> newSet = new HashSet<>();
+        // It's a "no-no" to update items in a Hash, so we must create a new one (sized so it
+        // doesn't grow while it is filled)
+        Set<Athlete> newSet = new HashSet<>(athletes.size() * 4 / 3 + 1);
         athletes.forEach(a -> {
             a.setTeamId(id);
             newSet.add(a);
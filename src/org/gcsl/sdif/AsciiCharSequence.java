@@ -0,0 +1,52 @@
+package org.gcsl.sdif;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// A CharSequence over a range of single-byte characters in a ByteBuffer.  SDIF files are
+// fixed-width ASCII, so each byte is one character and no charset decoding is needed.
+// The buffer position is never changed, all reads are absolute.
+final class AsciiCharSequence implements CharSequence
+{
+    private final ByteBuffer buf;
+    private final int        offset;
+    private final int        len;
+
+    AsciiCharSequence(ByteBuffer buf, int offset, int len)
+    {
+        this.buf    = buf;
+        this.offset = offset;
+        this.len    = len;
+    }
+
+    @Override
+    public char charAt(int index)
+    {
+        if (index < 0  ||  index >= len) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + len);
+        }
+        return (char) (buf.get(offset + index) & 0xff);
+    }
+
+    @Override
+    public int length() { return len; }
+
+    @Override
+    public CharSequence subSequence(int start, int end)
+    {
+        if (start < 0  ||  end > len  ||  start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + len);
+        }
+        return new AsciiCharSequence(buf, offset + start, end - start);
+    }
+
+    @Override
+    public String toString()
+    {
+        byte[] bytes = new byte[len];
+        for (int i = 0; i < len; i++) {
+            bytes[i] = buf.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,94 @@
+package org.gcsl.sdif;
+
+// A read-only view of a fixed-width field in an SDIF record.  The field characters are not
+// copied until toString() is called, so fields that are only inspected cost no allocation.
+public final class SdifField implements CharSequence
+{
+    private final CharSequence buf;   // the SDIF record data
+    private final int          start; // index of the first field character in buf
+    private final int          end;   // index after the last field character in buf
+
+    // Create a view of buf[offset, offset+len).  Leading and trailing white space is
+    // dropped from the view when trim is true (same rules as String.trim).
+    // Throws an IndexOutOfBoundsException if the field is not contained within buf.
+    SdifField(CharSequence buf, int offset, int len, boolean trim)
+    {
+        if (offset < 0  ||  len < 0  ||  offset + len > buf.length()) {
+            throw new IndexOutOfBoundsException("SDIF field [" + offset + ", " + (offset + len) +
+                                                ") is outside the record, length=" + buf.length());
+        }
+
+        int first = offset;
+        int last  = offset + len;
+        if (trim) {
+            while (first < last  &&  buf.charAt(first) <= ' ')   { first++; }
+            while (last > first  &&  buf.charAt(last - 1) <= ' ') { last--; }
+        }
+
+        this.buf   = buf;
+        this.start = first;
+        this.end   = last;
+    }
+
+    @Override
+    public char charAt(int index)
+    {
+        if (index < 0  ||  index >= length()) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length());
+        }
+        return buf.charAt(start + index);
+    }
+
+    @Override
+    public int length()      { return end - start; }
+
+    public boolean isEmpty() { return start == end; }
+
+    // The bounds are checked against this field, not buf, so a sub-sequence never reaches into
+    // the neighbouring fields.
+    @Override
+    public CharSequence subSequence(int from, int to)
+    {
+        if (from < 0  ||  from > to  ||  to > length()) {
+            throw new IndexOutOfBoundsException("subSequence [" + from + ", " + to + "), length " + length());
+        }
+        return new SdifField(buf, start + from, to - from, false);
+    }
+
+    // Return true if the field holds exactly the characters of cs.
+    public boolean contentEquals(CharSequence cs)
+    {
+        int len = length();
+        if (cs.length() != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (buf.charAt(start + i) != cs.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Return the field as a String with runs of blanks collapsed to a single blank.
+    public String toCollapsedString()
+    {
+        StringBuilder sb = new StringBuilder(length());
+        char prev = 0;
+
+        for (int i = start; i < end; i++) {
+            char c = buf.charAt(i);
+            if (c != ' '  ||  prev != ' ') {
+                sb.append(c);
+            }
+            prev = c;
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return buf.subSequence(start, end).toString();
+    }
+}
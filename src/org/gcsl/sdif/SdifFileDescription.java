@@ -27,9 +27,9 @@ public class SdifFileDescription
 
         public String getType() { return type; }
 
-        public static SdifFileDescription.SdifFileType fromString(String type) {
+        public static SdifFileDescription.SdifFileType fromString(CharSequence type) {
             for (SdifFileDescription.SdifFileType t : SdifFileDescription.SdifFileType.values()) {
-                if (t.getType().equals(type)) {
+                if (t.getType().contentEquals(type)) {
                     return t;
                 }
             }
@@ -43,7 +43,7 @@ public class SdifFileDescription
     String       vendorVersion;
 
     // Create an SDIF File Descriptor from a File Description Record
-    public SdifFileDescription(String sdifBuf) throws SdifException {
+    public SdifFileDescription(CharSequence sdifBuf) throws SdifException {
         popFromSdifData(sdifBuf);
     }
 
@@ -54,24 +54,25 @@ public class SdifFileDescription
     public String       getVendorVersion() { return vendorVersion; }
 
 
-    private void popFromSdifData(String sdifBuf) throws SdifException
+    private void popFromSdifData(CharSequence sdifBuf) throws SdifException
     {
-        if (sdifBuf.length() < 2) {
+        if (sdifBuf == null  ||  sdifBuf.length() < 2) {
             throw new SdifException("Invalid File Description data:  not enough data");
         }
 
-        SdifRec.SdifRecType rt = SdifRec.SdifRecType.fromString(sdifBuf.substring(0,2));
+        SdifRec rec = new SdifRec(sdifBuf);
+        SdifRec.SdifRecType rt = rec.getType();
 
         if (rt == SdifRec.SdifRecType.FILE_DESCRIPTION_REC) {
-            fileDate = Utils.makeDateString(sdifBuf.substring(105, 113));
-            fileType = SdifFileType.fromString(sdifBuf.substring(11,13));
-            vendor   = sdifBuf.substring(43, 63).trim();
-            vendorVersion = sdifBuf.substring(63, 73).trim();
+            fileDate = Utils.makeDateString(rec.rawField(105, 8));
+            fileType = SdifFileType.fromString(rec.rawField(11, 2));
+            vendor   = rec.field(43, 20).toString();
+            vendorVersion = rec.field(63, 10).toString();
         }
         else if (rt == SdifRec.SdifRecType.ROSTER_ONLY_REC) {
-            fileDate = Utils.makeDateString(sdifBuf.substring(58, 66));
+            fileDate = Utils.makeDateString(rec.rawField(58, 8));
             fileType = SdifFileType.fromString("20");  //TODO:  hard code vendor defined for now
-            vendor   = sdifBuf.substring(29,57).trim();
+            vendor   = rec.field(29, 28).toString();
             vendorVersion = "";
         }
         else {
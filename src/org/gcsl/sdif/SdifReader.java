@@ -1,10 +1,22 @@
 package org.gcsl.sdif;
 
+import org.gcsl.jfr.SdifParseEvent;
+import org.gcsl.util.Metrics;
+
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class SdifReader
+public class SdifReader implements AutoCloseable, Iterable<SdifRec>
 {
     public enum SdifFileFormat {
         CL2("CL2"),
@@ -27,35 +39,112 @@ public class SdifReader
         }
     }
 
+    // How the file contents are read.
+    //   BUFFERED - lines are decoded into Strings by a BufferedReader.
+    //   MAPPED   - the file is memory mapped and records are read straight from the mapped bytes.
+    //              On Windows the file can't be deleted or renamed until the mapping is garbage
+    //              collected, which may be long after the reader is closed.
+    public enum ReadMode {
+        BUFFERED,
+        MAPPED;
+
+        // The mode named by mode (case insensitive), or defaultMode if mode is null or unknown.
+        public static ReadMode fromString(String mode, ReadMode defaultMode) {
+            for (ReadMode m : ReadMode.values()) {
+                if (mode != null  &&  m.name().equalsIgnoreCase(mode.trim())) {
+                    return m;
+                }
+            }
+            return defaultMode;
+        }
+    }
+
+    private ByteBuffer          byteBuf;     // file contents, when reading from mapped or in-memory bytes
     private SdifFileDescription fileDescription;
     private SdifFileFormat      fileFormat;
     private long                fileLen;
     private String              filePath;
-    private BufferedReader      reader;
+    private int                 numRecs;     // records read so far, counted in Metrics on close
+    private SdifParseEvent      parseEvent = new SdifParseEvent();   // committed on close
+    private long                readNanos;   // time spent reading records, recorded in Metrics on close
+    private BufferedReader      reader;      // when reading from a buffered file or stream
 
 
     // Creates an SdifReader and reads the first line of the file in order
     // to obtain the file type information.
     // Throws an SdifException if the file identified by sdifFilePath cannot
     // be found or if there is an IO error reading the file.
-    public SdifReader(String sdifFilePath) throws SdifException{
+    public SdifReader(String sdifFilePath) throws SdifException
+    {
+        this(sdifFilePath, ReadMode.BUFFERED);
+    }
+
+    public SdifReader(String sdifFilePath, ReadMode mode) throws SdifException
+    {
         try {
             File sdifFile = new File(sdifFilePath);
             fileFormat    = SdifFileFormat.fromString(getFileExtension(sdifFile));
             fileLen       = sdifFile.length();
             filePath      = sdifFilePath;
-            reader        = new BufferedReader(new FileReader(sdifFilePath));
 
-            // first line of file should be File Description Record
-            fileDescription = new SdifFileDescription(reader.readLine());
+            if (mode == ReadMode.MAPPED) {
+                // the mapping stays valid after the channel is closed
+                try (FileChannel channel = FileChannel.open(Paths.get(sdifFilePath), StandardOpenOption.READ)) {
+                    byteBuf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            }
+            else {
+                reader = new BufferedReader(new FileReader(sdifFilePath));
+            }
         } catch (Exception e) {
             close();
             throw new SdifException(e);
         }
+        readFileDescription();
+    }
+
+    // Creates an SdifReader over SDIF data that is already in memory, such as a file read from
+    // an archive.  sdifFileName is only used to determine the file format.  The position of
+    // sdifData is not changed.
+    // Throws an SdifException if the data does not start with a File Description Record.
+    public SdifReader(String sdifFileName, ByteBuffer sdifData) throws SdifException
+    {
+        fileFormat = SdifFileFormat.fromString(getFileExtension(new File(sdifFileName)));
+        fileLen    = sdifData.remaining();
+        filePath   = sdifFileName;
+        byteBuf    = sdifData.duplicate();
+
+        readFileDescription();
     }
 
+    // Creates an SdifReader that reads SDIF data from a stream, such as a ZIP archive entry.
+    // sdifFileName is only used to determine the file format.  The stream is closed when the
+    // reader is closed.  The file length is not known and is reported as -1.
+    // Throws an SdifException if there is an IO error reading the stream.
+    public SdifReader(String sdifFileName, InputStream sdifData) throws SdifException
+    {
+        fileFormat = SdifFileFormat.fromString(getFileExtension(new File(sdifFileName)));
+        fileLen    = -1;
+        filePath   = sdifFileName;
+        reader     = new BufferedReader(new InputStreamReader(sdifData, StandardCharsets.ISO_8859_1));
+
+        readFileDescription();
+    }
+
+    @Override
     public void close()
     {
+        if (reader != null  ||  byteBuf != null) {
+            Metrics.count("sdif.records", numRecs);
+            Metrics.recordValue("sdif.recordsPerFile", numRecs);
+            Metrics.recordNanos("sdif.readFile", readNanos);
+
+            parseEvent.fileName    = filePath;
+            parseEvent.format      = (fileFormat != null ? fileFormat.name() : null);
+            parseEvent.fileSize    = fileLen;
+            parseEvent.recordCount = numRecs;
+            parseEvent.commit();
+        }
         if (reader != null) {
             try {
                 reader.close();
@@ -65,6 +154,7 @@ public class SdifReader
             }
             reader = null;
         }
+        byteBuf = null;
     }
 
     public SdifFileDescription getFileDescription() { return fileDescription; }
@@ -73,21 +163,60 @@ public class SdifReader
     public String getFilePath()                     { return filePath; }
 
 
+    // Returns an iterator that reads the remainder of the SDIF file one record at a time,
+    // so only the current record is held in memory.  The file is closed once the last
+    // record has been read.
+    // An IO error reading the file is thrown as an UncheckedIOException.
+    @Override
+    public Iterator<SdifRec> iterator()
+    {
+        return new Iterator<SdifRec>() {
+            private SdifRec nextRec = null;
+
+            @Override
+            public boolean hasNext()
+            {
+                if (nextRec == null) {
+                    nextRec = readRec();
+                }
+                return nextRec != null;
+            }
+
+            @Override
+            public SdifRec next()
+            {
+                if (! hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                SdifRec rec = nextRec;
+                nextRec = null;
+                return rec;
+            }
+        };
+    }
+
+
+    // Returns a stream of the remaining records in the file.  Closing the stream closes the file.
+    public Stream<SdifRec> records()
+    {
+        return StreamSupport.stream(spliterator(), false).onClose(this::close);
+    }
+
+
     // Reads the SdifFile and returns a list of records.
     // Note that the file is closed after the call to readFile
     // Throws an SdifException if there was an IO error reading the file.
     public List<SdifRec> readFile() throws SdifException
     {
-        String line;
         ArrayList<SdifRec> recs = new ArrayList<>();
 
         try {
-            while ( (line = reader.readLine()) != null) {
-                recs.add(new SdifRec(line));
+            for (SdifRec rec : this) {
+                recs.add(rec);
             }
-        } catch (IOException e) {
+        } catch (UncheckedIOException e) {
             close();
-            throw new SdifException(e);
+            throw new SdifException(e.getCause());
         }
         close();
         return recs;
@@ -105,4 +234,71 @@ public class SdifReader
         }
         return extension;
     }
+
+
+    // Read the first line of the file, which should be the File Description Record.
+    private void readFileDescription() throws SdifException
+    {
+        try {
+            fileDescription = new SdifFileDescription(readLine());
+        } catch (Exception e) {
+            close();
+            throw new SdifException(e);
+        }
+    }
+
+
+    // Read the next line from the file, without the line terminator.  A line is terminated by
+    // LF, CR or CR LF, the same as BufferedReader.readLine().  Return null at end of file.
+    private CharSequence readLine() throws IOException
+    {
+        if (reader != null) {
+            return reader.readLine();
+        }
+        if (byteBuf == null  ||  ! byteBuf.hasRemaining()) {
+            return null;
+        }
+
+        int start = byteBuf.position();
+        int limit = byteBuf.limit();
+        int end   = start;
+        while (end < limit  &&  byteBuf.get(end) != '\n'  &&  byteBuf.get(end) != '\r') {
+            end++;
+        }
+
+        int next = end;
+        if (next < limit  &&  byteBuf.get(next) == '\r')  { next++; }
+        if (next < limit  &&  byteBuf.get(next) == '\n')  { next++; }
+        byteBuf.position(next);
+
+        return new AsciiCharSequence(byteBuf, start, end - start);
+    }
+
+
+    // Read the next record from the file.  Return null and close the file at end of file.
+    // The time spent here is added to readNanos, so sdif.readFile covers every way of reading
+    // the records but not the caller's work between records.
+    private SdifRec readRec()
+    {
+        if (reader == null  &&  byteBuf == null) {
+            return null;
+        }
+
+        long startedAt = System.nanoTime();
+        try {
+            CharSequence line = readLine();
+            if (line == null) {
+                readNanos += System.nanoTime() - startedAt;
+                close();
+                return null;
+            }
+            numRecs++;
+            SdifRec rec = new SdifRec(line);
+            readNanos += System.nanoTime() - startedAt;
+            return rec;
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+    }
 }
\ No newline at end of file
@@ -28,9 +28,9 @@ public class SdifRec
 
         public String getCode() { return code; }
 
-        public static SdifRec.SdifRecType fromString(String code) {
+        public static SdifRec.SdifRecType fromString(CharSequence code) {
             for (SdifRec.SdifRecType r : SdifRec.SdifRecType.values()) {
-                if (r.getCode().equals(code)) {
+                if (r.getCode().contentEquals(code)) {
                     return r;
                 }
             }
@@ -38,20 +38,27 @@ public class SdifRec
         }
     };
 
-    private String      dataBuf;   // holds SDIF data
-    private SdifRecType type;      // type of SDFI data
+    private CharSequence dataBuf;  // holds SDIF data
+    private SdifRecType  type;     // type of SDFI data
 
-    public SdifRec(String sdifData)
+    public SdifRec(CharSequence sdifData)
     {
         dataBuf = sdifData;
         if (sdifData == null || sdifData.length() < 2) {
             type = SdifRecType.INVALID_REC;
         }
         else {
-            type = SdifRecType.fromString(sdifData.substring(0, 2));
+            type = SdifRecType.fromString(rawField(0, 2));
         }
     }
 
-    public String getDataBuf()   { return dataBuf; }
+    public String getDataBuf()   { return dataBuf == null ? null : dataBuf.toString(); }
     public SdifRecType getType() { return type; }
+
+    // Return a view of the field at [offset, offset+len) with leading and trailing blanks removed.
+    // No characters are copied, call toString() on the field to keep the value.
+    public SdifField field(int offset, int len)    { return new SdifField(dataBuf, offset, len, true); }
+
+    // Return a view of the field at [offset, offset+len) exactly as it appears in the record.
+    public SdifField rawField(int offset, int len) { return new SdifField(dataBuf, offset, len, false); }
 }
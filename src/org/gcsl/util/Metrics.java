@@ -0,0 +1,229 @@
+package org.gcsl.util;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process wide registry of named counters, timers and histograms, used to see where an import
+// or report spends its time.  Recording is lock free and cheap enough for the per-record and
+// per-statement paths.  Metrics are created on first use and live until reset() is called.
+//   counter   - a running total (eg. records read)
+//   timer     - durations in nanoseconds, reported in milliseconds
+//   histogram - a distribution of values (eg. orphans per meet)
+// Timers and histograms keep power of 2 buckets, so their percentiles are upper bounds that
+// are within a factor of 2 of the real value.
+//
+// dump() prints a summary of the metrics recorded since the previous dump and, if a report
+// directory is set, appends it to the day's metrics file in that directory.  The dumped metrics
+// are dropped, so each summary only covers its own interval.  When tasks run at the same time
+// an interval includes whatever the other tasks recorded during it.
+public class Metrics
+{
+    private Metrics() {}
+
+    private static final Map<String, LongAdder> counters   = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> timers     = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    private static volatile File reportDir = null;
+    private static LocalDateTime lastDump  = LocalDateTime.now();   // guarded by Metrics.class
+
+
+    // Add 1 to a counter.
+    public static void count(String name)
+    {
+        count(name, 1);
+    }
+
+    public static void count(String name, long amount)
+    {
+        counters.computeIfAbsent(name, k -> new LongAdder()).add(amount);
+    }
+
+
+    // Record the time since startNanos (a System.nanoTime() value) in a timer.
+    public static void recordTime(String name, long startNanos)
+    {
+        recordNanos(name, System.nanoTime() - startNanos);
+    }
+
+    // Record a duration in nanoseconds in a timer.
+    public static void recordNanos(String name, long nanos)
+    {
+        timers.computeIfAbsent(name, k -> new Histogram()).record(nanos);
+    }
+
+
+    // Record a value in a histogram.
+    public static void recordValue(String name, long value)
+    {
+        histograms.computeIfAbsent(name, k -> new Histogram()).record(value);
+    }
+
+
+    public static long getCount(String name)
+    {
+        LongAdder counter = counters.get(name);
+        return (counter != null ? counter.sum() : 0);
+    }
+
+    // The number of times a timer was recorded.
+    public static long getTimerCount(String name)
+    {
+        Histogram timer = timers.get(name);
+        return (timer != null ? timer.count.get() : 0);
+    }
+
+
+    // Set the directory that dump() writes to, or null to only print the summary.
+    public static void setReportDir(File dir) { reportDir = dir; }
+
+
+    // Drop all the metrics.
+    public static synchronized void reset()
+    {
+        counters.clear();
+        timers.clear();
+        histograms.clear();
+        lastDump = LocalDateTime.now();
+    }
+
+
+    // Print a summary of the metrics recorded since the last dump, headed by title and the
+    // interval, then drop them.  The summary is appended to the metrics file if there is a
+    // report directory.  Failing to write the file is logged and otherwise ignored.
+    public static void dump(String title)
+    {
+        String summary;
+
+        synchronized (Metrics.class) {
+            LocalDateTime now = LocalDateTime.now();
+            summary = "Metrics for " + title + " from " + lastDump.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) +
+                       " to " + now.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + "\n" +
+                       summary(drain(counters), drain(timers), drain(histograms));
+            lastDump = now;
+        }
+        System.out.print(summary);
+
+        File dir = reportDir;
+        if (dir != null) {
+            String fileSpec = Utils.createFileSpec(dir, "metrics", "txt", true);
+            try (PrintWriter pw = new PrintWriter(new FileWriter(fileSpec, true))) {
+                pw.println(summary);
+            }
+            catch (IOException e) {
+                System.err.println("ERROR - writing metrics file " + fileSpec + ": " + e.getMessage());
+            }
+        }
+    }
+
+
+    // A summary of all the current metrics, sorted by name within each kind.
+    public static String summary()
+    {
+        return summary(new TreeMap<>(counters), new TreeMap<>(timers), new TreeMap<>(histograms));
+    }
+
+
+    // Remove the entries from a registry map and return them sorted by name.  A value recorded
+    // at the same moment its metric is drained can be lost, which is fine for a summary.
+    private static <V> Map<String, V> drain(Map<String, V> metrics)
+    {
+        Map<String, V> drained = new TreeMap<>();
+        for (String name : metrics.keySet()) {
+            V metric = metrics.remove(name);
+            if (metric != null) {
+                drained.put(name, metric);
+            }
+        }
+        return drained;
+    }
+
+    private static String summary(Map<String, LongAdder> counters, Map<String, Histogram> timers,
+                                  Map<String, Histogram> histograms)
+    {
+        StringWriter sw = new StringWriter();
+        PrintWriter  pw = new PrintWriter(sw);
+
+        if (! counters.isEmpty()) {
+            pw.printf("  %-12s  %s%n", "count", "counter");
+            counters.forEach((name, counter) -> pw.printf("  %12d  %s%n", counter.sum(), name));
+        }
+        if (! timers.isEmpty()) {
+            pw.printf("  %8s %10s %9s %9s %9s %9s  %s%n", "count", "total ms", "mean ms", "p50 ms", "p99 ms", "max ms",
+                      "timer");
+            timers.forEach((name, timer) -> {
+                long count = timer.count.get();
+                pw.printf("  %8d %10.1f %9.3f %9.3f %9.3f %9.3f  %s%n", count, toMillis(timer.sum.get()),
+                          toMillis(timer.sum.get() / Math.max(1, count)), toMillis(timer.percentile(50)),
+                          toMillis(timer.percentile(99)), toMillis(timer.max.get()), name);
+            });
+        }
+        if (! histograms.isEmpty()) {
+            pw.printf("  %8s %10s %9s %9s %9s %9s  %s%n", "count", "total", "mean", "p50", "p99", "max", "histogram");
+            histograms.forEach((name, histogram) -> {
+                long count = histogram.count.get();
+                pw.printf("  %8d %10d %9d %9d %9d %9d  %s%n", count, histogram.sum.get(),
+                          histogram.sum.get() / Math.max(1, count), histogram.percentile(50),
+                          histogram.percentile(99), histogram.max.get(), name);
+            });
+        }
+        pw.flush();
+
+        return sw.toString();
+    }
+
+
+    private static double toMillis(long nanos)
+    {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+
+    // Values are counted in power of 2 buckets:  bucket i holds the values that need i bits,
+    // so bucket 0 holds 0 and bucket 10 holds 512 to 1023.  Negative values count as 0.
+    static class Histogram
+    {
+        private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE + 1);
+        private final AtomicLong      count   = new AtomicLong();
+        private final AtomicLong      sum     = new AtomicLong();
+        private final AtomicLong      max     = new AtomicLong();
+
+        void record(long value)
+        {
+            long v = Math.max(0, value);
+            buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(v));
+            count.incrementAndGet();
+            sum.addAndGet(v);
+            max.accumulateAndGet(v, Math::max);
+        }
+
+        // The upper bound of the bucket holding the percentile, capped at the largest value.
+        long percentile(double percent)
+        {
+            long total  = count.get();
+            long target = (long) Math.ceil(total * percent / 100.0);
+            long seen   = 0;
+
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= target  &&  seen > 0) {
+                    long upperBound = (i == 0 ? 0 : (i >= Long.SIZE - 1 ? Long.MAX_VALUE : (1L << i) - 1));
+                    return Math.min(upperBound, max.get());
+                }
+            }
+            return max.get();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.gcsl.util;
 
+import org.gcsl.jfr.ArchiveExtractEvent;
+
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -15,12 +17,14 @@ public class Utils
     public enum ARCHIVE_FILE_TYPE { ZIP, SD3, UNKNOWN }
 
     // makeDateString - assumes input is mmddyyyy and returns yyyy-mm-dd which is suitable for SQLite
-    public static String makeDateString(String buf)
+    public static String makeDateString(CharSequence buf)
     {
         String dateStr;
 
         if (buf.length() >= 8) {
-            dateStr = buf.substring(4, 8) + "-" + buf.substring(0, 2) + "-" +  buf.substring(2, 4);
+            dateStr = new StringBuilder(10).append(buf, 4, 8).append('-')
+                                           .append(buf, 0, 2).append('-')
+                                           .append(buf, 2, 4).toString();
         }
         else {
             dateStr = "";
@@ -70,26 +74,44 @@ public class Utils
         return type;
     }
 
-    // Extract the file identified by fileName from the archive file.  Return the path
-    // to the extracted file.
-    public static String getFileFromArchive(String archivePath, String fileName) throws IOException
+    // Open the file identified by fileName in the archive file.  The archive is closed when the
+    // returned stream is closed, which also ends the file's ArchiveExtractEvent.
+    // Throw a FileNotFoundException if the archive does not contain the file.
+    public static InputStream openFileFromArchive(String archivePath, String fileName) throws IOException
     {
-        String extractedFilePath = "";
-
-        try (ZipFile zipFile = new ZipFile(archivePath)){
-            final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        final ArchiveExtractEvent event = new ArchiveExtractEvent();
+        final ZipFile  zipFile = new ZipFile(archivePath);
+        final ZipEntry entry   = zipFile.getEntry(fileName);
 
-            while (entries.hasMoreElements()) {
-                final ZipEntry entry = entries.nextElement();
-                String zipEntryName = entry.getName();
+        if (entry == null) {
+            zipFile.close();
+            throw new FileNotFoundException(fileName + " not found in archive " + archivePath);
+        }
 
-                if (zipEntryName.equals(fileName)) {
-                    extractedFilePath = extractArchiveEntry(entry, zipFile.getInputStream(entry));
+        try {
+            return new FilterInputStream(zipFile.getInputStream(entry)) {
+                @Override
+                public void close() throws IOException
+                {
+                    try {
+                        super.close();
+                    }
+                    finally {
+                        zipFile.close();
+
+                        event.archiveName    = new File(archivePath).getName();
+                        event.fileName       = fileName;
+                        event.compressedSize = entry.getCompressedSize();
+                        event.size           = entry.getSize();
+                        event.commit();
+                    }
                 }
-            }
+            };
+        }
+        catch (IOException e) {
+            zipFile.close();
+            throw e;
         }
-
-        return extractedFilePath;
     }
 
     public static List<String> getFileNamesFromArchive(String filePath)
@@ -122,6 +144,24 @@ public class Utils
         return files;
     }
 
+    // Get an integer configuration property.  Return defaultValue if the property is
+    // missing or is not a number.
+    public static int getIntProperty(Properties config, String name, int defaultValue)
+    {
+        String value = config.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        }
+        catch (NumberFormatException e) {
+            System.err.println("WARNING:  property " + name + " is not a number: " + value);
+            return defaultValue;
+        }
+    }
+
     public static List<File> getFilesFromDirectory(File dir, List<String>extensions)
     {
         List<File> files = new ArrayList<>();
@@ -143,21 +183,4 @@ public class Utils
 
         return files;
     }
-
-
-    private static String extractArchiveEntry(final ZipEntry entry, InputStream is) throws IOException
-    {
-        final int BUFFER_SIZE = 8192;
-        String extractedFile = "./temp_" + entry.getName();
-
-        try (FileOutputStream fos = new FileOutputStream(extractedFile)){
-            final byte[] buf = new byte[BUFFER_SIZE];
-            int length;
-
-            while ((length = is.read(buf, 0, buf.length)) >= 0) {
-                fos.write(buf, 0, length);
-            }
-        }
-        return extractedFile;
-    }
 }
@@ -0,0 +1,216 @@
+package org.gcsl;
+
+import org.gcsl.db.AthleteDbo;
+import org.gcsl.db.DbCache;
+import org.gcsl.db.MeetDbo;
+import org.gcsl.db.SchemaMigrator;
+import org.gcsl.db.StatementCache;
+import org.gcsl.db.TeamDbo;
+import org.gcsl.model.Athlete;
+import org.gcsl.model.AthleteMeetCount;
+import org.gcsl.model.Meet;
+import org.gcsl.model.MeetResults;
+import org.gcsl.model.ProcessArchiveItem;
+import org.gcsl.model.Team;
+import org.gcsl.util.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The champs eligibility check and report against the per-athlete queries the report used to run
+class ChampsEligibilityTest
+{
+    private Connection    db;
+    private Path          reportDir;
+    private List<Athlete> rosterA;
+    private List<Athlete> rosterB;
+    private Team          teamA;
+    private Team          teamB;
+
+    // rosterA[0] swims 3 meets (exactly the minimum), rosterA[1] 2, rosterA[2] 4, rosterA[3] none.
+    // rosterB[0] swims 3 meets and rosterB[1] 1.
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        db = DriverManager.getConnection("jdbc:sqlite::memory:");
+        SchemaMigrator.migrate(db);
+        DbCache.clear();
+
+        teamA   = TeamDbo.insert(db, new Team(Utils.INVALID_ID, "AAA", "Team AAA", ""));
+        teamB   = TeamDbo.insert(db, new Team(Utils.INVALID_ID, "BBB", "Team BBB", ""));
+        rosterA = insertAthletes(teamA, 4);
+        rosterB = insertAthletes(teamB, 2);
+
+        LocalDate week1 = LocalDate.of(2019, 6, 10);
+        insertMeet(week1,              rosterA.subList(0, 3), rosterB.subList(0, 2));
+        insertMeet(week1.plusWeeks(1), rosterA.subList(0, 3), rosterB.subList(0, 1));
+        insertMeet(week1.plusWeeks(2), rosterA.subList(0, 1), rosterB.subList(0, 1));
+        insertMeet(week1.plusWeeks(3), rosterA.subList(2, 3), rosterB.subList(0, 1));
+        insertMeet(week1.plusWeeks(4), rosterA.subList(2, 3), rosterB.subList(0, 1));
+
+        reportDir = Files.createTempDirectory("champs_test");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        DbCache.clear();
+        StatementCache.closeAll(db);
+        db.close();
+
+        try (Stream<Path> files = Files.list(reportDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(reportDir);
+    }
+
+    @Test
+    void testThresholdAndOrphans() throws SQLException
+    {
+        Athlete orphan  = new Athlete("Nobody, Not On Roster", "F", "2011-03-03");
+        Team    entries = entryTeam(teamA, rosterA, orphan);
+
+        ChampsEligibility eligibility = ChampsEligibility.check(db, Collections.singletonList(entries));
+
+        assertEquals(Collections.singletonList(entryOf(orphan, teamA)), eligibility.getOrphans(entries));
+        Map<String, Integer> counts = new HashMap<>();
+        for (AthleteMeetCount meetCount : eligibility.getExceptions(entries)) {
+            counts.put(meetCount.getAthlete().getName(), meetCount.getMeetCount());
+        }
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put(rosterA.get(1).getName(), 2);
+        expected.put(rosterA.get(3).getName(), 0);
+        assertEquals(expected, counts);
+    }
+
+    // The report's entry exceptions are the same as the ones the report printed when it looked up
+    // each entry and its meets one at a time.
+    @Test
+    void testReportMatchesPerAthleteLookups() throws Exception
+    {
+        List<Team> teams = Arrays.asList(entryTeam(teamA, rosterA, new Athlete("Nobody, Not On Roster", "F", "2011-03-03")),
+                                         entryTeam(teamB, rosterB, new Athlete("Else, Someone", "M", "2010-04-04")));
+
+        new Reports(db, reportDir.toFile()).champsExceptionReport(teams, new HashMap<>());
+
+        String report;
+        try (Stream<Path> files = Files.list(reportDir)) {
+            Path file = files.findFirst().orElseThrow(() -> new AssertionError("no report written"));
+            report = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        }
+        for (Team team : teams) {
+            assertTrue(report.contains(perAthleteEntryExceptions(team)), team.getCode());
+        }
+    }
+
+
+    // The team as read from an entry file:  the roster athletes without their DB IDs, plus an
+    // athlete that is not on the roster.
+    private Team entryTeam(Team dbTeam, List<Athlete> roster, Athlete orphan)
+    {
+        Team team = new Team(dbTeam.getId(), dbTeam.getCode(), dbTeam.getName(), "");
+        for (Athlete athlete : roster) {
+            team.addAthlete(entryOf(athlete, dbTeam));
+        }
+        team.addAthlete(entryOf(orphan, dbTeam));
+        return team;
+    }
+
+    private Athlete entryOf(Athlete athlete, Team team)
+    {
+        return new Athlete(athlete.getName(), athlete.getGender(), athlete.getDob(), team.getId());
+    }
+
+    private List<Athlete> insertAthletes(Team team, int numAthletes) throws SQLException
+    {
+        Set<Athlete> athletes = new LinkedHashSet<>();
+        for (int i = 0; i < numAthletes; i++) {
+            athletes.add(new Athlete("Swimmer" + team.getCode() + ", Number" + i, (i % 2 == 0 ? "F" : "M"),
+                                     "2010-01-0" + (i + 1), team.getId()));
+        }
+        AthleteDbo.insert(db, athletes);
+        return new ArrayList<>(athletes);
+    }
+
+    private void insertMeet(LocalDate date, List<Athlete> athletes1, List<Athlete> athletes2) throws SQLException
+    {
+        MeetResults meet = new MeetResults(date, "Meet " + date, ProcessArchiveItem.Scenario.MEET_RESULTS);
+        meet.setResultFileDate(date.toString());
+        meet.addTeam(meetTeam(teamA, athletes1));
+        meet.addTeam(meetTeam(teamB, athletes2));
+        MeetDbo.insert(db, meet);
+    }
+
+    private Team meetTeam(Team dbTeam, List<Athlete> athletes)
+    {
+        Team team = new Team(dbTeam.getId(), dbTeam.getCode(), dbTeam.getName(), "");
+        athletes.forEach(team::addAthlete);
+        return team;
+    }
+
+    // The entry exceptions section as the report printed it by finding each entry in the DB and
+    // reading its meets one at a time.
+    private String perAthleteEntryExceptions(Team team) throws SQLException
+    {
+        Map<Integer, String> meetDates = MeetDbo.findAll(db).stream()
+                                                .collect(Collectors.toMap(Meet::getId, Meet::getMeetDate));
+        List<String> exceptionList = new ArrayList<>();
+        List<String> orphanList    = new ArrayList<>();
+
+        for (Athlete athlete : team.getAthletes()) {
+            Athlete dbAthlete = AthleteDbo.find(db, athlete);
+            if (dbAthlete == null) {
+                orphanList.add(entryException(athlete, Collections.emptyList(), meetDates));
+            }
+            else {
+                List<Integer> meetIds = AthleteDbo.getMeetIds(db, dbAthlete);
+                if (meetIds.size() < 3) {
+                    exceptionList.add(entryException(dbAthlete, meetIds, meetDates));
+                }
+            }
+        }
+
+        StringWriter sw = new StringWriter();
+        PrintWriter  pw = new PrintWriter(sw);
+        pw.print("\tChamps orphans: ");
+        if (orphanList.isEmpty()) { pw.println("NONE"); } else { pw.println(); orphanList.forEach(pw::println); }
+        pw.print("\tChamps Exceptions: ");
+        if (exceptionList.isEmpty()) { pw.println("NONE"); } else { pw.println(); exceptionList.forEach(pw::println); }
+        pw.flush();
+
+        return sw.toString();
+    }
+
+    private String entryException(Athlete athlete, List<Integer> meetIds, Map<Integer, String> meetDates)
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\t\t").append(athlete.getName()).append(",").append(athlete.getGender()).append(",")
+          .append(athlete.getDob()).append(",").append("count=").append(meetIds.size()).append(",");
+        meetIds.forEach(id -> sb.append(meetDates.get(id)).append(" "));
+        return sb.toString();
+    }
+}
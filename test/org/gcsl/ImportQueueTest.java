@@ -0,0 +1,68 @@
+package org.gcsl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportQueueTest
+{
+    @Test
+    void testItemsThenEnd() throws Exception
+    {
+        ImportQueue<String> queue = new ImportQueue<>(2, 2);
+        queue.put("a");
+        queue.put("b");
+        queue.close(null);   // the queue is full, so the end marker does not fit
+
+        assertEquals("a", queue.take());
+        assertEquals("b", queue.take());
+        assertNull(queue.take());
+        assertNull(queue.take());
+    }
+
+    @Test
+    void testReaderErrorIsThrownToWriter() throws Exception
+    {
+        ImportQueue<String> queue = new ImportQueue<>(2, 2);
+        queue.put("a");
+        queue.close(new IllegalStateException("bad file"));
+
+        ImportQueue.ImportException e = assertThrows(ImportQueue.ImportException.class, queue::take);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    // The writer has stopped with the queue full and the reader is cancelled while it waits to
+    // put the next item.  The reader must close the queue and end instead of hanging.
+    @Test
+    void testCancelledReaderEndsWhenWriterHasStopped() throws Exception
+    {
+        ImportQueue<String>        queue  = new ImportQueue<>(1, 3);
+        AtomicReference<Throwable> closed = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            Throwable error = null;
+            try {
+                queue.put("a");
+                queue.put("b");   // blocks, nobody takes
+            }
+            catch (InterruptedException e) {
+                error = e;
+            }
+            finally {
+                queue.close(error);
+                closed.set(error);
+            }
+        });
+        reader.start();
+
+        Thread.sleep(100);
+        reader.interrupt();
+        reader.join(5000);
+
+        assertFalse(reader.isAlive());
+        assertTrue(closed.get() instanceof InterruptedException);
+        assertThrows(ImportQueue.ImportException.class, queue::take);
+    }
+}
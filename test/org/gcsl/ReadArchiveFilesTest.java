@@ -0,0 +1,125 @@
+package org.gcsl;
+
+import org.gcsl.model.MeetResults;
+import org.gcsl.model.ProcessArchiveItem;
+import org.gcsl.model.Team;
+import org.gcsl.sdif.SdifGenerator;
+import org.gcsl.sdif.SdifReader;
+import org.gcsl.util.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Round trip the SdifGenerator's files through the archive readers
+class ReadArchiveFilesTest
+{
+    private static final LocalDate MEET_DATE = LocalDate.of(2019, 6, 17);
+
+    private final SdifGenerator generator = new SdifGenerator(4, 23, 6, 0.2, 7);
+    private Path dir;
+
+    @BeforeEach
+    void createDir() throws IOException
+    {
+        dir = Files.createTempDirectory("read_archive_test");
+    }
+
+    @AfterEach
+    void deleteDir() throws IOException
+    {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void testRosterArchivesReadBack() throws Exception
+    {
+        for (SdifReader.SdifFileFormat format : new SdifReader.SdifFileFormat[] { SdifReader.SdifFileFormat.HY3,
+                                                                                  SdifReader.SdifFileFormat.SD3 }) {
+            Path archive = generator.writeRosterArchive(dir, 2, format);
+            ProcessArchiveItem item = archiveItem(archive, ProcessArchiveItem.Scenario.TEAM_ROSTER);
+
+            Team team = new ReadRosterFilesTask(Collections.singletonList(item)).processArchiveItem(item);
+            assertTeamEquals(generator.team(2), team);
+        }
+    }
+
+    @Test
+    void testResultArchivesReadBack() throws Exception
+    {
+        for (SdifReader.SdifFileFormat format : new SdifReader.SdifFileFormat[] { SdifReader.SdifFileFormat.CL2,
+                                                                                  SdifReader.SdifFileFormat.SD3 }) {
+            Path archive = generator.writeResultArchive(dir, 1, 2, MEET_DATE, format);
+            ProcessArchiveItem item = archiveItem(archive, ProcessArchiveItem.Scenario.MEET_RESULTS);
+
+            MeetResults meet = new ReadResultFilesTask(Collections.singletonList(item)).processArchiveItem(item);
+            assertEquals(MEET_DATE, meet.getDate());
+            assertEquals(2, meet.getTeams().size());
+            assertEquals(generator.teamCode(1), meet.getTeams().get(0).getCode());
+            assertEquals(generator.meetAthletes(1, MEET_DATE), meet.getTeams().get(0).getAthletes());
+            assertEquals(generator.meetAthletes(2, MEET_DATE), meet.getTeams().get(1).getAthletes());
+        }
+
+        // the no shows were written and were left out of the results
+        long numNoShows = generator.resultRecords(1, 2, MEET_DATE).stream()
+                                   .filter(rec -> rec.startsWith("D0")  &&  rec.substring(115, 123).trim().equals("NS"))
+                                   .count();
+        assertTrue(numNoShows > 0);
+    }
+
+    @Test
+    void testEntryArchiveReadsBack() throws Exception
+    {
+        Path archive = generator.writeEntryArchive(dir, 3, MEET_DATE);
+        ProcessArchiveItem item = archiveItem(archive, ProcessArchiveItem.Scenario.BYE_WEEK_ENTRIES);
+
+        MeetResults meet = new ReadResultFilesTask(Collections.singletonList(item)).processArchiveItem(item);
+        assertEquals(MEET_DATE, meet.getDate());
+        assertEquals(1, meet.getTeams().size());
+        assertTeamEquals(generator.team(3), meet.getTeams().get(0));
+    }
+
+    @Test
+    void testWeekMeetsPairEveryTeamOnce()
+    {
+        SdifGenerator league = new SdifGenerator(40, 1, 1, 0.0, 1);
+        for (int week = 0; week < 10; week++) {
+            HashSet<Integer> teams = new HashSet<>();
+            for (int[] meet : league.weekMeets(week)) {
+                assertTrue(teams.add(meet[0]));
+                assertTrue(teams.add(meet[1]));
+            }
+            assertEquals(40, teams.size());
+        }
+    }
+
+
+    private ProcessArchiveItem archiveItem(Path archive, ProcessArchiveItem.Scenario scenario)
+    {
+        File file = archive.toFile();
+        return new ProcessArchiveItem(file.getPath(), String.join(", ", Utils.getFileNamesFromArchive(file)),
+                                      true, scenario);
+    }
+
+    private void assertTeamEquals(Team expected, Team actual)
+    {
+        assertEquals(expected.getCode(), actual.getCode());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getAthletes(), actual.getAthletes());
+    }
+}
@@ -0,0 +1,131 @@
+package org.gcsl;
+
+import org.gcsl.db.DbCache;
+import org.gcsl.db.MeetDbo;
+import org.gcsl.db.SchemaMigrator;
+import org.gcsl.db.StatementCache;
+import org.gcsl.model.Meet;
+import org.gcsl.model.MeetResults;
+import org.gcsl.model.ProcessArchiveItem;
+import org.gcsl.model.Team;
+import org.gcsl.sdif.SdifGenerator;
+import org.gcsl.sdif.SdifReader;
+import org.gcsl.util.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Stream result archives through an ImportQueue into the DB, the way GcslApp and GcslBatch do
+class ResultsToDbTaskTest
+{
+    private static final LocalDate MEET_DATE = LocalDate.of(2019, 6, 17);
+
+    private final SdifGenerator generator = new SdifGenerator(4, 12, 4, 0.1, 11);
+    private Connection db;
+    private Path       dir;
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        db = DriverManager.getConnection("jdbc:sqlite::memory:");
+        SchemaMigrator.migrate(db);
+        DbCache.clear();
+
+        List<Team> teams = new ArrayList<>();
+        for (int t = 0; t < generator.getNumTeams(); t++) {
+            teams.add(generator.team(t));
+        }
+        new RostersToDbTask(db, teams).runHeadless();
+
+        dir = Files.createTempDirectory("results_to_db_test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException, SQLException
+    {
+        DbCache.clear();
+        StatementCache.closeAll(db);
+        db.close();
+
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void testCorruptArchiveOnlySkipsItsMeet() throws Exception
+    {
+        importWithCorruptArchive(1);
+    }
+
+    @Test
+    void testCorruptArchiveOnlySkipsItsMeetInParallel() throws Exception
+    {
+        importWithCorruptArchive(3);
+    }
+
+
+    // Import 3 good meets with a corrupt archive between them.  The corrupt archive is counted
+    // as failed and the other meets are committed.
+    private void importWithCorruptArchive(int maxThreads) throws Exception
+    {
+        List<ProcessArchiveItem> items = new ArrayList<>();
+        items.add(archiveItem(generator.writeResultArchive(dir, 0, 1, MEET_DATE, SdifReader.SdifFileFormat.CL2)));
+        items.add(archiveItem(SdifGenerator.writeZip(dir.resolve("06172019_bad.zip"), "06172019_bad.cl2",
+                                                     Collections.singletonList("this is not an SDIF file"))));
+        items.add(archiveItem(generator.writeResultArchive(dir, 2, 3, MEET_DATE, SdifReader.SdifFileFormat.CL2)));
+        items.add(archiveItem(generator.writeResultArchive(dir, 0, 2, MEET_DATE.plusWeeks(1),
+                                                           SdifReader.SdifFileFormat.SD3)));
+
+        ReadResultFilesTask readTask = new ReadResultFilesTask(items);
+        readTask.setMaxThreads(maxThreads);
+        ImportQueue<MeetResults> importQueue = new ImportQueue<>(2, readTask.getNumItems());
+        readTask.setSink(importQueue);
+        ResultsToDbTask dbTask = new ResultsToDbTask(db, importQueue);
+
+        Thread reader = new Thread(() -> {
+            try {
+                readTask.runHeadless();
+            }
+            catch (Exception e) {
+                fail(e);
+            }
+        });
+        reader.start();
+        List<MeetResults> deferredMeets = dbTask.runHeadless();
+        reader.join();
+
+        assertTrue(deferredMeets.isEmpty());
+        assertEquals(1, readTask.getNumFailedItems());
+        assertEquals(1, dbTask.getNumFailed());
+
+        List<Meet> meets = MeetDbo.findAll(db);
+        assertEquals(3, meets.size());
+        assertTrue(db.getAutoCommit());
+    }
+
+    private ProcessArchiveItem archiveItem(Path archive)
+    {
+        File file = archive.toFile();
+        return new ProcessArchiveItem(file.getPath(), String.join(", ", Utils.getFileNamesFromArchive(file)),
+                                      true, ProcessArchiveItem.Scenario.MEET_RESULTS);
+    }
+}
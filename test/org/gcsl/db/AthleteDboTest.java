@@ -0,0 +1,168 @@
+package org.gcsl.db;
+
+import org.gcsl.model.Athlete;
+import org.gcsl.model.Team;
+import org.gcsl.util.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AthleteDboTest
+{
+    private static final int BATCH_SIZE = 7;
+
+    private Connection db;
+    private int        savedBatchSize;
+
+    @BeforeEach
+    void openDb() throws SQLException
+    {
+        db = DriverManager.getConnection("jdbc:sqlite::memory:");
+        SchemaMigrator.migrate(db);
+        DbCache.clear();
+
+        savedBatchSize = DbConfig.getBatchSize();
+        DbConfig.setBatchSize(BATCH_SIZE);
+    }
+
+    @AfterEach
+    void closeDb() throws SQLException
+    {
+        DbConfig.setBatchSize(savedBatchSize);
+        DbCache.clear();
+        StatementCache.closeAll(db);
+        db.close();
+    }
+
+    // The batch IDs are counted back from the last generated ID, so check every athlete's ID
+    // against its row, over several full batches and a partial one.
+    @Test
+    void testBatchInsertSetsEachAthletesId() throws SQLException
+    {
+        Team team = TeamDbo.insert(db, new Team(Utils.INVALID_ID, "TST", "Test Team", ""));
+
+        // leave a gap in the row IDs before the batches
+        Athlete removed = new Athlete("Gone, Athlete", "F", "2009-01-01", team.getId());
+        insert(removed);
+        AthleteDbo.remove(db, removed);
+
+        Set<Athlete> athletes = new LinkedHashSet<>();
+        for (int i = 0; i < 3 * BATCH_SIZE + 3; i++) {
+            athletes.add(new Athlete("Swimmer, Number" + i, (i % 2 == 0 ? "F" : "M"), "2010-01-" + (10 + i % 18),
+                                     team.getId()));
+        }
+        AthleteDbo.insert(db, athletes);
+
+        for (Athlete athlete : athletes) {
+            assertEquals(findId(athlete), athlete.getId(), athlete.toString());
+        }
+    }
+
+    // resolve() matches on name, dob, gender and team:  the same swimmer on another team is a
+    // different athlete, and a swimmer who is not on the team's roster is an orphan.
+    @Test
+    void testResolveMatchesOnTeamAndName() throws SQLException
+    {
+        Team teamA = TeamDbo.insert(db, new Team(Utils.INVALID_ID, "AAA", "Team A", ""));
+        Team teamB = TeamDbo.insert(db, new Team(Utils.INVALID_ID, "BBB", "Team B", ""));
+        Athlete onA = new Athlete("Same, Name", "F", "2010-05-05", teamA.getId());
+        Athlete onB = new Athlete("Same, Name", "F", "2010-05-05", teamB.getId());
+        insert(onA);
+        insert(onB);
+        assertNotEquals(onA.getId(), onB.getId());
+
+        Athlete resultA = new Athlete("Same, Name", "F", "2010-05-05");
+        Athlete resultB = new Athlete("Same, Name", "F", "2010-05-05");
+        Athlete missing = new Athlete("Same, Name", "F", "2010-05-06");   // different dob
+        List<Team> teams = Arrays.asList(resultTeam(teamA, resultA, missing), resultTeam(teamB, resultB));
+
+        AthleteDbo.Resolution resolution = AthleteDbo.resolve(db, teams);
+
+        assertEquals(Integer.valueOf(onA.getId()), resolution.getAthleteIds().get(resultA));
+        assertEquals(Integer.valueOf(onB.getId()), resolution.getAthleteIds().get(resultB));
+        assertEquals(2, resolution.getAthleteIds().size());
+        assertEquals(Collections.singletonList(missing), resolution.getOrphans());
+    }
+
+    // resolve() finds the same athletes as find(), whether find() reads the DB or DbCache.
+    @Test
+    void testResolveAgreesWithFind() throws SQLException
+    {
+        Team team = TeamDbo.insert(db, new Team(Utils.INVALID_ID, "TST", "Test Team", ""));
+        Set<Athlete> roster = new LinkedHashSet<>();
+        for (int i = 0; i < 5; i++) {
+            roster.add(new Athlete("Swimmer, Number" + i, (i % 2 == 0 ? "F" : "M"), "2010-03-0" + (i + 1), team.getId()));
+        }
+        AthleteDbo.insert(db, roster);
+
+        Team results = new Team(team.getId(), team.getCode(), team.getName(), "");
+        for (Athlete athlete : roster) {
+            results.addAthlete(new Athlete(athlete.getName(), athlete.getGender(), athlete.getDob()));
+        }
+        results.addAthlete(new Athlete("Not, Rostered", "M", "2010-03-09"));
+
+        for (boolean cached : new boolean[] { false, true }) {
+            DbCache.clear();
+            if (cached) {
+                for (Athlete athlete : roster) {
+                    AthleteDbo.find(db, athlete);   // puts the athlete in DbCache
+                    assertNotNull(DbCache.getAthlete(athlete.getId()));
+                }
+            }
+
+            AthleteDbo.Resolution resolution = AthleteDbo.resolve(db, Collections.singletonList(results));
+            for (Athlete athlete : results.getAthletes()) {
+                Athlete found = AthleteDbo.find(db, athlete);
+                assertEquals((found != null ? Integer.valueOf(found.getId()) : null),
+                             resolution.getAthleteIds().get(athlete), athlete + " cached=" + cached);
+            }
+            assertEquals(1, resolution.getOrphans().size());
+        }
+    }
+
+
+    private void insert(Athlete athlete) throws SQLException
+    {
+        Set<Athlete> one = new LinkedHashSet<>();
+        one.add(athlete);
+        AthleteDbo.insert(db, one);
+    }
+
+    private Team resultTeam(Team dbTeam, Athlete... athletes)
+    {
+        Team team = new Team(dbTeam.getId(), dbTeam.getCode(), dbTeam.getName(), "");
+        for (Athlete athlete : athletes) {
+            team.addAthlete(athlete);
+        }
+        return team;
+    }
+
+    private int findId(Athlete athlete) throws SQLException
+    {
+        String sql = "SELECT id FROM Athletes WHERE name = ? AND dob = ? AND gender = ? AND team_id = ?";
+
+        try (PreparedStatement pstmt = db.prepareStatement(sql)) {
+            pstmt.setString(1, athlete.getName());
+            pstmt.setString(2, athlete.getDob());
+            pstmt.setString(3, athlete.getGender());
+            pstmt.setInt(4, athlete.getTeamId());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertTrue(rs.next(), "no row for " + athlete);
+                return rs.getInt(1);
+            }
+        }
+    }
+}
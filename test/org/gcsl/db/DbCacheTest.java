@@ -0,0 +1,139 @@
+package org.gcsl.db;
+
+import org.gcsl.model.Athlete;
+import org.gcsl.model.Meet;
+import org.gcsl.model.MeetResults;
+import org.gcsl.model.ProcessArchiveItem;
+import org.gcsl.model.Team;
+import org.gcsl.util.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Every change that makes a cached row stale removes it from DbCache, so the DBOs never return
+// an object the DB no longer holds.
+class DbCacheTest
+{
+    private Connection db;
+    private Team       team;
+
+    @BeforeEach
+    void openDb() throws SQLException
+    {
+        db = DriverManager.getConnection("jdbc:sqlite::memory:");
+        SchemaMigrator.migrate(db);
+        DbCache.clear();
+
+        team = TeamDbo.insert(db, new Team(Utils.INVALID_ID, "AAA", "Team A", ""));
+    }
+
+    @AfterEach
+    void closeDb() throws SQLException
+    {
+        DbCache.clear();
+        StatementCache.closeAll(db);
+        db.close();
+    }
+
+    // A removed athlete is gone from both the key and the ID map, even when the object passed to
+    // remove() no longer matches the cached athlete's key.
+    @Test
+    void testRemovedAthleteIsNotFound() throws SQLException
+    {
+        Athlete athlete = insertAthlete("Swimmer, Some");
+        Athlete cached  = AthleteDbo.find(db, athlete);
+        assertEquals(athlete.getId(), cached.getId());
+        assertNotNull(DbCache.getAthlete(athlete.getId()));
+
+        // a roster update names the athlete differently, but removes it by ID
+        AthleteDbo.remove(db, new Athlete(athlete.getId(), "Swimmer, Renamed", athlete.getGender(),
+                                          athlete.getDob(), athlete.getTeamId(), ""));
+
+        assertNull(AthleteDbo.find(db, athlete));
+        assertNull(AthleteDbo.find(db, athlete.getId()));
+
+        // the same swimmer added again is found under the new ID
+        Athlete again = insertAthlete("Swimmer, Some");
+        assertNotEquals(athlete.getId(), again.getId());
+        assertEquals(again.getId(), AthleteDbo.find(db, athlete).getId());
+    }
+
+    // update() changes the meet's file_date, so the cached meet is dropped and re-read.
+    @Test
+    void testUpdatedMeetIsReRead() throws SQLException
+    {
+        Team    teamB   = TeamDbo.insert(db, new Team(Utils.INVALID_ID, "BBB", "Team B", ""));
+        Athlete athlete = insertAthlete("Swimmer, Some");
+
+        int meetId = MeetDbo.insert(db, meet(teamB, athlete, "2019-06-10"));
+        assertEquals("2019-06-10", MeetDbo.findById(db, meetId).getFileDate());
+
+        MeetDbo.removeResults(db, meetId);
+        MeetDbo.update(db, meet(teamB, athlete, "2019-06-12"), meetId);
+
+        Meet meet = MeetDbo.findById(db, meetId);
+        assertEquals("2019-06-12", meet.getFileDate());
+    }
+
+    // Rows read inside a rolled back item or transaction are not found afterwards, and a row
+    // written again after the rollback is found with its new ID.
+    @Test
+    void testRolledBackRowsAreNotFound() throws SQLException
+    {
+        try (DbTransaction transaction = new DbTransaction(db)) {
+            assertFalse(transaction.runItem("team_BBB", () -> {
+                TeamDbo.insert(db, new Team(Utils.INVALID_ID, "BBB", "Team B", ""));
+                assertNotNull(TeamDbo.findByCode(db, "BBB"));    // caches the team
+                return false;
+            }));
+            assertNull(TeamDbo.findByCode(db, "BBB"));
+
+            Team teamB = TeamDbo.insert(db, new Team(Utils.INVALID_ID, "BBB", "Team B", ""));
+            assertEquals(teamB.getId(), TeamDbo.findByCode(db, "BBB").getId());
+            transaction.commit();
+        }
+        assertNotNull(TeamDbo.findByCode(db, "BBB"));
+
+        Athlete athlete;
+        try (DbTransaction transaction = new DbTransaction(db)) {
+            athlete = insertAthlete("Swimmer, Some");
+            assertNotNull(AthleteDbo.find(db, athlete));       // caches the athlete
+            assertNotNull(TeamDbo.findById(db, team.getId()));
+        }
+        assertNull(AthleteDbo.find(db, athlete));
+        assertNull(AthleteDbo.find(db, athlete.getId()));
+        assertEquals(team.getId(), TeamDbo.findByCode(db, "AAA").getId());   // committed before
+    }
+
+
+    private Athlete insertAthlete(String name) throws SQLException
+    {
+        Athlete      athlete = new Athlete(name, "F", "2010-01-01", team.getId());
+        Set<Athlete> one     = new LinkedHashSet<>(Collections.singletonList(athlete));
+        AthleteDbo.insert(db, one);
+        return athlete;
+    }
+
+    private MeetResults meet(Team teamB, Athlete athlete, String fileDate)
+    {
+        MeetResults meet = new MeetResults(LocalDate.of(2019, 6, 8), "Meet", ProcessArchiveItem.Scenario.MEET_RESULTS);
+        meet.setResultFileDate(fileDate);
+
+        Team resultsA = new Team(team.getId(), team.getCode(), team.getName(), "");
+        resultsA.addAthlete(new Athlete(athlete.getId(), athlete.getName(), athlete.getGender(), athlete.getDob(),
+                                        athlete.getTeamId(), ""));
+        meet.addTeam(resultsA);
+        meet.addTeam(new Team(teamB.getId(), teamB.getCode(), teamB.getName(), ""));
+        return meet;
+    }
+}
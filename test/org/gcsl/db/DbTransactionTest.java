@@ -0,0 +1,128 @@
+package org.gcsl.db;
+
+import org.gcsl.model.Athlete;
+import org.gcsl.model.Team;
+import org.gcsl.util.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DbTransactionTest
+{
+    private Connection db;
+
+    @BeforeEach
+    void openDb() throws SQLException
+    {
+        db = DriverManager.getConnection("jdbc:sqlite::memory:");
+        SchemaMigrator.migrate(db);
+        DbCache.clear();
+    }
+
+    @AfterEach
+    void closeDb() throws SQLException
+    {
+        DbCache.clear();
+        StatementCache.closeAll(db);
+        db.close();
+    }
+
+    // A failing item only rolls back its own changes; the items before and after it commit.
+    @Test
+    void testFailedItemIsRolledBackAndOthersCommit() throws SQLException
+    {
+        try (DbTransaction transaction = new DbTransaction(db)) {
+            assertTrue(transaction.runItem("team_1", () -> insertTeam("AAA")));
+            assertFalse(transaction.runItem("team_2", () -> {
+                insertTeam("BBB");
+                throw new SQLException("bad team");
+            }));
+            assertFalse(transaction.runItem("team_3", () -> insertTeam("CCC")  &&  false));
+            assertTrue(transaction.runItem("team_4", () -> insertTeam("DDD")));
+
+            assertEquals(2, transaction.getNumFailedItems());
+            transaction.commit();
+        }
+
+        assertTrue(db.getAutoCommit());
+        assertEquals("AAA,DDD", teamCodes());
+    }
+
+    // Bad data in an item's model objects fails that item like a DB error does.
+    @Test
+    void testRuntimeExceptionOnlyRollsBackItsItem() throws SQLException
+    {
+        try (DbTransaction transaction = new DbTransaction(db)) {
+            assertTrue(transaction.runItem("team_1", () -> insertTeam("AAA")));
+            assertFalse(transaction.runItem("team_2", () -> {
+                insertTeam("BBB");
+                return Integer.parseInt("not a number") > 0;
+            }));
+            assertTrue(transaction.runItem("team_3", () -> insertTeam("CCC")));
+
+            assertEquals(1, transaction.getNumFailedItems());
+            transaction.commit();
+        }
+
+        assertEquals("AAA,CCC", teamCodes());
+    }
+
+    @Test
+    void testCloseWithoutCommitRollsBack() throws SQLException
+    {
+        try (DbTransaction transaction = new DbTransaction(db)) {
+            assertTrue(transaction.runItem("team_1", () -> insertTeam("AAA")));
+            assertEquals(0, transaction.getNumFailedItems());
+        }
+
+        assertTrue(db.getAutoCommit());
+        assertEquals("", teamCodes());
+    }
+
+    // The cache may hold rows written by the rolled back work, so any rollback clears it.
+    @Test
+    void testRollbackClearsCache() throws SQLException
+    {
+        Athlete athlete = new Athlete(1, "Swimmer, Some", "F", "2010-01-01", 1, "");
+
+        try (DbTransaction transaction = new DbTransaction(db)) {
+            DbCache.putAthlete(athlete);
+            assertTrue(transaction.runItem("item_1", () -> true));
+            assertNotNull(DbCache.getAthlete(1));
+
+            assertFalse(transaction.runItem("item_2", () -> false));
+            assertNull(DbCache.getAthlete(1));
+
+            DbCache.putAthlete(athlete);
+        }
+        assertNull(DbCache.getAthlete(1));
+    }
+
+
+    private boolean insertTeam(String code) throws SQLException
+    {
+        TeamDbo.insert(db, new Team(Utils.INVALID_ID, code, "Team " + code, ""));
+        return true;
+    }
+
+    private String teamCodes() throws SQLException
+    {
+        StringBuilder codes = new StringBuilder();
+
+        try (Statement stmt = db.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT code FROM Teams ORDER BY code")) {
+            while (rs.next()) {
+                codes.append(codes.length() > 0 ? "," : "").append(rs.getString(1));
+            }
+        }
+        return codes.toString();
+    }
+}
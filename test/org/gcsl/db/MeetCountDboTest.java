@@ -0,0 +1,158 @@
+package org.gcsl.db;
+
+import org.gcsl.model.Athlete;
+import org.gcsl.model.MeetResults;
+import org.gcsl.model.ProcessArchiveItem;
+import org.gcsl.model.Team;
+import org.gcsl.util.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Athlete_Meet_Count is kept up to date as meets are credited and removed.  After every change
+// it must hold exactly what AGGREGATE_SQL computes from Athlete_Meet.
+class MeetCountDboTest
+{
+    private static final LocalDate WEEK_1 = LocalDate.of(2019, 6, 10);
+    private static final LocalDate WEEK_2 = LocalDate.of(2019, 6, 17);
+    private static final LocalDate WEEK_3 = LocalDate.of(2019, 6, 24);
+
+    private Connection    db;
+    private List<Athlete> teamA;
+    private List<Athlete> teamB;
+    private List<Athlete> teamC;
+
+    @BeforeEach
+    void openDb() throws SQLException
+    {
+        db = DriverManager.getConnection("jdbc:sqlite::memory:");
+        SchemaMigrator.migrate(db);
+        DbCache.clear();
+
+        teamA = insertTeam("AAA", 4);
+        teamB = insertTeam("BBB", 3);
+        teamC = insertTeam("CCC", 3);
+    }
+
+    @AfterEach
+    void closeDb() throws SQLException
+    {
+        DbCache.clear();
+        StatementCache.closeAll(db);
+        db.close();
+    }
+
+    @Test
+    void testCountsFollowMeetChanges() throws SQLException
+    {
+        int meet1Id = MeetDbo.insert(db, meet(WEEK_1, teamA, teamB));
+        int meet2Id = MeetDbo.insert(db, meet(WEEK_2, teamA.subList(0, 2), teamC));
+        assertCountsMatchAggregate();
+        assertEquals(2, meetCount(teamA.get(0)));
+        assertEquals("2019-06-10 2019-06-17", meetDates(teamA.get(0)));
+
+        // replace meet 1 without athlete 3 of team A, as ResultsToDbTask replaces a meet
+        MeetDbo.removeResults(db, meet1Id);
+        assertCountsMatchAggregate();
+        MeetDbo.update(db, meet(WEEK_1, teamA.subList(0, 3), teamB), meet1Id);
+        assertCountsMatchAggregate();
+        assertEquals(0, meetCount(teamA.get(3)));
+        assertEquals("2019-06-17 2019-06-10", meetDates(teamA.get(0)));
+
+        // remove an athlete that has meets
+        AthleteDbo.remove(db, teamA.get(1));
+        assertCountsMatchAggregate();
+        assertEquals(0, meetCount(teamA.get(1)));
+
+        // put the same meet in again, the athletes already have rows (INSERT OR IGNORE)
+        MeetDbo.removeResults(db, meet2Id);
+        MeetDbo.update(db, meet(WEEK_2, teamA.subList(0, 1), teamC), meet2Id);
+        assertCountsMatchAggregate();
+        assertEquals(2, meetCount(teamA.get(0)));
+
+        MeetDbo.insert(db, meet(WEEK_3, teamB, teamC));
+        assertCountsMatchAggregate();
+        assertEquals(2, meetCount(teamC.get(0)));
+        assertEquals("2019-06-10 2019-06-24", meetDates(teamB.get(0)));
+    }
+
+
+    private void assertCountsMatchAggregate() throws SQLException
+    {
+        List<String> expected = rows("SELECT * FROM (" + String.format(MeetCountDbo.AGGREGATE_SQL, "") + ") " +
+                                     "ORDER BY 1");
+        List<String> actual   = rows("SELECT athlete_id, meet_count, meet_dates FROM Athlete_Meet_Count ORDER BY 1");
+        assertEquals(expected, actual);
+    }
+
+    private List<Athlete> insertTeam(String code, int numAthletes) throws SQLException
+    {
+        Team          team     = TeamDbo.insert(db, new Team(Utils.INVALID_ID, code, "Team " + code, ""));
+        Set<Athlete>  athletes = new LinkedHashSet<>();
+        for (int i = 0; i < numAthletes; i++) {
+            athletes.add(new Athlete("Swimmer" + code + ", Number" + i, (i % 2 == 0 ? "F" : "M"), "2010-02-0" + (i + 1),
+                                     team.getId()));
+        }
+        AthleteDbo.insert(db, athletes);
+        return new ArrayList<>(athletes);
+    }
+
+    private MeetResults meet(LocalDate date, List<Athlete> athletes1, List<Athlete> athletes2)
+    {
+        MeetResults meet = new MeetResults(date, "Meet " + date, ProcessArchiveItem.Scenario.MEET_RESULTS);
+        meet.setResultFileDate(date.toString());
+        meet.addTeam(team(athletes1));
+        meet.addTeam(team(athletes2));
+        return meet;
+    }
+
+    private int meetCount(Athlete athlete) throws SQLException
+    {
+        List<String> row = rows("SELECT meet_count FROM Athlete_Meet_Count WHERE athlete_id = " + athlete.getId());
+        return (row.isEmpty() ? 0 : Integer.parseInt(row.get(0)));
+    }
+
+    private String meetDates(Athlete athlete) throws SQLException
+    {
+        List<String> row = rows("SELECT meet_dates FROM Athlete_Meet_Count WHERE athlete_id = " + athlete.getId());
+        return (row.isEmpty() ? "" : row.get(0));
+    }
+
+    private List<String> rows(String sql) throws SQLException
+    {
+        List<String> rows = new ArrayList<>();
+
+        try (Statement stmt = db.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            int numColumns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= numColumns; i++) {
+                    row.append(i > 1 ? "|" : "").append(rs.getString(i));
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+
+    private Team team(List<Athlete> athletes)
+    {
+        Team team = new Team(athletes.get(0).getTeamId(), "T" + athletes.get(0).getTeamId(), "", "");
+        athletes.forEach(team::addAthlete);
+        return team;
+    }
+}
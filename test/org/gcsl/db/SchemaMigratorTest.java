@@ -0,0 +1,79 @@
+package org.gcsl.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest
+{
+    private Connection db;
+
+    @BeforeEach
+    void openDb() throws SQLException
+    {
+        db = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @AfterEach
+    void closeDb() throws SQLException
+    {
+        db.close();
+    }
+
+    @Test
+    void testMigrateCreatesSchemaFromNothing() throws SQLException
+    {
+        assertEquals(0, SchemaMigrator.getVersion(db));
+
+        SchemaMigrator.migrate(db);
+
+        assertEquals(SchemaMigrator.getLatestVersion(), SchemaMigrator.getVersion(db));
+        for (String table : new String[] { "Teams", "Athletes", "Meets", "Athlete_Meet", "Orphans" }) {
+            assertEquals(1, count("SELECT count(*) FROM sqlite_master WHERE type='table' AND name='" + table + "'"), table);
+        }
+        assertEquals(1, count("SELECT count(*) FROM sqlite_master WHERE type='index' AND name='idx_athlete_meet_meet'"));
+        assertTrue(db.getAutoCommit());
+    }
+
+    @Test
+    void testMigrateTwiceIsNoOp() throws SQLException
+    {
+        SchemaMigrator.migrate(db);
+        SchemaMigrator.migrate(db);
+
+        assertEquals(SchemaMigrator.getLatestVersion(), count("SELECT count(*) FROM schema_version"));
+    }
+
+    @Test
+    void testExistingTablesAreAdopted() throws SQLException
+    {
+        try (Statement stmt = db.createStatement()) {
+            stmt.execute("CREATE TABLE Teams (id INTEGER PRIMARY KEY AUTOINCREMENT, code TEXT, name TEXT, " +
+                         "last_update TEXT DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("INSERT INTO Teams (code, name) VALUES ('AAA', 'Team A')");
+        }
+
+        SchemaMigrator.migrate(db);
+
+        assertEquals(1, count("SELECT count(*) FROM Teams"));
+        assertEquals(SchemaMigrator.getLatestVersion(), SchemaMigrator.getVersion(db));
+    }
+
+
+    private int count(String sql) throws SQLException
+    {
+        try (Statement stmt = db.createStatement();
+             ResultSet rs   = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.gcsl.db;
+
+import org.gcsl.model.Team;
+import org.gcsl.util.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementCacheTest
+{
+    private static final String SQL = "SELECT id FROM Teams WHERE code = ?";
+
+    private Connection db;
+
+    @BeforeEach
+    void openDb() throws SQLException
+    {
+        db = DriverManager.getConnection("jdbc:sqlite::memory:");
+        SchemaMigrator.migrate(db);
+        DbCache.clear();
+    }
+
+    @AfterEach
+    void closeDb() throws SQLException
+    {
+        DbCache.clear();
+        StatementCache.closeAll(db);
+        db.close();
+    }
+
+    // close() puts the statement back in the cache with its results closed, ready to reuse
+    @Test
+    void testCloseReturnsStatementToCache() throws SQLException
+    {
+        PreparedStatement first = StatementCache.prepare(db, SQL);
+        first.setString(1, "AAA");
+        ResultSet rs = first.executeQuery();
+        first.close();
+
+        assertTrue(rs.isClosed());
+        assertFalse(first.isClosed());
+
+        long hits = StatementCache.getHits();
+        try (PreparedStatement second = StatementCache.prepare(db, SQL)) {
+            assertSame(first, second);
+            second.setString(1, "AAA");
+            try (ResultSet rs2 = second.executeQuery()) {
+                assertFalse(rs2.next());
+            }
+        }
+        assertEquals(hits + 1, StatementCache.getHits());
+        assertEquals(1, StatementCache.getNumStatements(db));
+    }
+
+    // A statement that is still in use is not handed out again; the caller gets an uncached one
+    // that close() really closes.
+    @Test
+    void testStatementInUseFallsBackToUncached() throws SQLException
+    {
+        try (PreparedStatement outer = StatementCache.prepare(db, SQL)) {
+            PreparedStatement inner = StatementCache.prepare(db, SQL);
+            assertNotSame(outer, inner);
+            inner.close();
+            assertTrue(inner.isClosed());
+            assertFalse(outer.isClosed());
+        }
+        assertEquals(1, StatementCache.getNumStatements(db));
+    }
+
+    // Statements are shared by all the threads, one at a time
+    @Test
+    void testStatementsAreSharedByThreads() throws Exception
+    {
+        PreparedStatement mine;
+        try (PreparedStatement pstmt = StatementCache.prepare(db, SQL)) {
+            mine = pstmt;
+        }
+
+        AtomicReference<PreparedStatement> theirs = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try (PreparedStatement pstmt = StatementCache.prepare(db, SQL)) {
+                theirs.set(pstmt);
+            }
+            catch (SQLException e) {
+                fail(e);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertSame(mine, theirs.get());
+        assertEquals(1, StatementCache.getNumStatements(db));
+    }
+
+    @Test
+    void testCloseAllClosesStatements() throws SQLException
+    {
+        PreparedStatement pstmt = StatementCache.prepare(db, SQL);
+        pstmt.close();
+
+        StatementCache.closeAll(db);
+        assertTrue(pstmt.isClosed());
+        assertEquals(0, StatementCache.getNumStatements(db));
+
+        try (PreparedStatement next = StatementCache.prepare(db, SQL)) {
+            assertNotSame(pstmt, next);
+            assertFalse(next.isClosed());
+        }
+    }
+
+    // Queries on any number of teams use the same IN list statement
+    @Test
+    void testInListStatementsAreBounded() throws SQLException
+    {
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 2 * StatementCache.IN_LIST_SIZE + 3; i++) {
+            teams.add(TeamDbo.insert(db, new Team(Utils.INVALID_ID, "T" + i, "Team " + i, "")));
+        }
+        StatementCache.closeAll(db);
+
+        for (int numTeams = 1; numTeams <= teams.size(); numTeams++) {
+            AthleteDbo.resolve(db, teams.subList(0, numTeams));
+            MeetCountDbo.findByTeams(db, teams.subList(0, numTeams));
+        }
+        assertEquals(2, StatementCache.getNumStatements(db));
+    }
+
+    @Test
+    void testSetInListRepeatsLastValue() throws SQLException
+    {
+        List<Integer> teamIds = new ArrayList<>();
+        for (int i = 0; i < StatementCache.IN_LIST_SIZE + 2; i++) {
+            teamIds.add(TeamDbo.insert(db, new Team(Utils.INVALID_ID, "T" + i, "Team " + i, "")).getId());
+        }
+        String sql = "SELECT count(*) FROM Teams WHERE id IN " + StatementCache.inList();
+
+        assertEquals(StatementCache.IN_LIST_SIZE, countTeams(sql, teamIds, 0));
+        assertEquals(2, countTeams(sql, teamIds, StatementCache.IN_LIST_SIZE));
+        assertEquals(1, countTeams(sql, Collections.singletonList(teamIds.get(0)), 0));
+    }
+
+
+    private int countTeams(String sql, List<Integer> teamIds, int from) throws SQLException
+    {
+        try (PreparedStatement pstmt = StatementCache.prepare(db, sql)) {
+            StatementCache.setInList(pstmt, 1, teamIds, from);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+}
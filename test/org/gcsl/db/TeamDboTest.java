@@ -0,0 +1,53 @@
+package org.gcsl.db;
+
+import org.gcsl.model.Team;
+import org.gcsl.util.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TeamDboTest
+{
+    private Connection db;
+
+    @BeforeEach
+    void openDb() throws SQLException
+    {
+        db = DriverManager.getConnection("jdbc:sqlite::memory:");
+        SchemaMigrator.migrate(db);
+        DbCache.clear();
+    }
+
+    @AfterEach
+    void closeDb() throws SQLException
+    {
+        DbCache.clear();
+        StatementCache.closeAll(db);
+        db.close();
+    }
+
+    // insert() returns the team as the DB holds it, with the last_update the DB set, not the
+    // one on the team passed in.
+    @Test
+    void testInsertReturnsTheDbRow() throws SQLException
+    {
+        Team team     = new Team(Utils.INVALID_ID, "AAA", "Team A", "from the SDIF file");
+        Team inserted = TeamDbo.insert(db, team);
+
+        assertNotEquals(Utils.INVALID_ID, inserted.getId());
+        assertEquals(inserted.getId(), team.getId());
+
+        DbCache.clear();
+        Team found = TeamDbo.findByCode(db, "AAA");
+        assertEquals(found.getId(),         inserted.getId());
+        assertEquals(found.getName(),       inserted.getName());
+        assertEquals(found.getLastUpdate(), inserted.getLastUpdate());
+        assertNotEquals("from the SDIF file", inserted.getLastUpdate());
+    }
+}
@@ -73,6 +73,40 @@ class AthleteTest
         assertTrue(athletes.contains(a4));
     }
 
+    @Test
+    void testSetTeamIdChangesHashAndKey()
+    {
+        Athlete a1 = new Athlete("John Smith", "M", "2000-01-01");
+        Athlete a2 = new Athlete("John Smith", "M", "2000-01-01", 2);
+        int        hash = a1.hashCode();
+        AthleteKey key  = a1.getKey();
+
+        a1.setTeamId(2);
+        assertNotEquals(hash, a1.hashCode());
+        assertNotEquals(key, a1.getKey());
+        assertEquals(a2.hashCode(), a1.hashCode());
+        assertEquals(a2.getKey(), a1.getKey());
+
+        // the set finds the athlete under its new team
+        Set<Athlete> athletes = new HashSet<>();
+        athletes.add(a1);
+        assertTrue(athletes.contains(a2));
+    }
+
+    @Test
+    void testKeysMatchAthleteEquality()
+    {
+        Athlete a1 = new Athlete(7, "John Smith", "M", "2000-01-01", 2, "2019-06-01");
+        Athlete a2 = new Athlete("John Smith", "M", "2000-01-01", 2);
+        Athlete a3 = new Athlete("John Smith", "F", "2000-01-01", 2);
+
+        assertEquals(a1.getKey(), a2.getKey());
+        assertEquals(a1.getKey().hashCode(), a2.hashCode());
+        assertEquals(new AthleteKey("John Smith", "M", "2000-01-01", 2), a1.getKey());
+        assertNotEquals(a1.getKey(), a3.getKey());
+        assertSame(a1.getKey(), a1.getKey());
+    }
+
     // SDIF processing tests
     @Test
     void testMeetResultWithTimeNotNoShow()
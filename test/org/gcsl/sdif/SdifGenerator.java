@@ -0,0 +1,472 @@
+package org.gcsl.sdif;
+
+import org.gcsl.model.Athlete;
+import org.gcsl.model.Team;
+import org.gcsl.util.Utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Generates synthetic GCSL files for load and scale testing.  The swimmers are made up, so the
+// files can be shared, and they are sized by the constructor parameters:  anything from a single
+// dual meet to a league many times the real size.
+//
+// Every field the GCSL readers use is filled in, at the offsets they read it from, and the
+// other fields get plausible values.  The files are packaged the way the real ones arrive:
+//   roster   - ZIP holding a Hy-Tek HY3 file (A1, C1, D1), or an SDIF SD3 registration file
+//              (A0 type 01, C1, D1)
+//   results  - ZIP holding an SDIF CL2 file, or an SD3 file (A0 type 02, B1, then per team C1,
+//              D0 per individual swim and E0 + 4 F0 per relay, Z0)
+//   entries  - ZIP holding an HY3 file (A1, B1, C1, D1), for rain out and bye week entries
+//
+// Each athlete swims 2 of the numEvents individual events (1 if numEvents is 1), and every 4
+// athletes of a team swim a relay.  Each swim is a no show ("NS") with probability noShowRate.
+// The no shows are a function of the seed, the swim and the meet date, so the same generator
+// always writes the same files and meetAthletes() tells which athletes have a result.
+public class SdifGenerator
+{
+    public static final String VENDOR = "GCSL Synthetic Data";
+
+    private static final DateTimeFormatter SDIF_DATE    = DateTimeFormatter.ofPattern("MMddyyyy");
+    private static final LocalDate         ROSTER_DATE  = LocalDate.of(2019, 6, 1);
+    private static final int               SDIF_REC_LEN = 160;
+    private static final int               HY3_REC_LEN  = 130;
+    private static final int               RELAY_EVENT  = 0;   // events 1..numEvents are individual
+
+    private final int    numTeams;
+    private final int    athletesPerTeam;
+    private final int    numEvents;
+    private final double noShowRate;
+    private final long   seed;
+
+
+    public SdifGenerator(int numTeams, int athletesPerTeam, int numEvents, double noShowRate, long seed)
+    {
+        if (numTeams < 1  ||  athletesPerTeam < 1  ||  numEvents < 1  ||  noShowRate < 0.0  ||  noShowRate > 1.0) {
+            throw new IllegalArgumentException("Invalid generator parameters: teams=" + numTeams + ", athletes=" +
+                                               athletesPerTeam + ", events=" + numEvents + ", noShowRate=" + noShowRate);
+        }
+        this.numTeams        = numTeams;
+        this.athletesPerTeam = athletesPerTeam;
+        this.numEvents       = numEvents;
+        this.noShowRate      = noShowRate;
+        this.seed            = seed;
+    }
+
+
+    // Write a season to outDir:  a roster ZIP per team in outDir/Rosters and a result ZIP per dual
+    // meet in outDir/Results.
+    //     SdifGenerator <outDir> <teams> <athletesPerTeam> <events> <noShowRate> <weeks>
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 6) {
+            System.err.println("usage: SdifGenerator <outDir> <teams> <athletesPerTeam> <events> <noShowRate> <weeks>");
+            System.exit(2);
+        }
+        SdifGenerator generator = new SdifGenerator(Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                                                    Integer.parseInt(args[3]), Double.parseDouble(args[4]), 1);
+        Path outDir = Paths.get(args[0]);
+        int  numFiles = generator.writeSeason(outDir.resolve("Rosters"), outDir.resolve("Results"),
+                                              LocalDate.of(2019, 6, 10), Integer.parseInt(args[5]));
+        System.out.printf("SdifGenerator: wrote %d files to %s %n", numFiles, outDir);
+    }
+
+
+    // ********************     The made up league
+    public int getNumTeams()        { return numTeams; }
+    public int getAthletesPerTeam() { return athletesPerTeam; }
+
+    // A 4 character code ("G" + base 36 team number), so there can be up to 46,656 teams.
+    public String teamCode(int t)
+    {
+        String digits = Integer.toString(t, 36).toUpperCase();
+        return "G" + "000".substring(Math.min(3, digits.length())) + digits;
+    }
+
+    public String teamName(int t) { return "Synthetic Team " + t; }
+
+    public String    athleteLastName(int t, int a)      { return "Last" + t + "x" + a; }
+    public String    athleteFirstName(int t, int a)     { return "First" + a; }
+    public char      athleteMiddleInitial(int t, int a) { return (char) ('A' + a % 26); }
+    public String    athleteGender(int t, int a)        { return (a + t) % 2 == 0 ? "F" : "M"; }
+    public LocalDate athleteDob(int t, int a)           { return LocalDate.of(2005 + a % 12, a % 12 + 1, (a + t) % 28 + 1); }
+
+    // The name as the readers build it: "last, first m"
+    public String athleteName(int t, int a)
+    {
+        return athleteLastName(t, a) + ", " + athleteFirstName(t, a) + " " + athleteMiddleInitial(t, a);
+    }
+
+    public Athlete athlete(int t, int a)
+    {
+        return new Athlete(athleteName(t, a), athleteGender(t, a), athleteDob(t, a).toString());
+    }
+
+
+    // Team t with its full roster, as the roster readers return it (no DB IDs).
+    public Team team(int t)
+    {
+        Team team = new Team(Utils.INVALID_ID, teamCode(t), teamName(t), "");
+        for (int a = 0; a < athletesPerTeam; a++) {
+            team.addAthlete(athlete(t, a));
+        }
+        return team;
+    }
+
+
+    // The athletes of team t that have at least one result (a swim that is not a no show) at the
+    // meet on date.  These are the athletes the results readers return for the team.
+    public Set<Athlete> meetAthletes(int t, LocalDate date)
+    {
+        Set<Athlete> athletes = new HashSet<>();
+
+        for (int a = 0; a < athletesPerTeam; a++) {
+            boolean swam = false;
+            for (int event : athleteEvents(a)) {
+                swam |= ! isNoShow(t, a, event, date);
+            }
+            if (relayOf(a) >= 0) {
+                swam |= ! isNoShow(t, relayOf(a), RELAY_EVENT, date);
+            }
+            if (swam) {
+                athletes.add(athlete(t, a));
+            }
+        }
+        return athletes;
+    }
+
+
+    // The weekly dual meets:  in week w team 2p swims team (2p + 1 + 2w) % n, where n is the
+    // number of teams rounded down to even (with an odd number of teams the last one has a bye).
+    public int[][] weekMeets(int week)
+    {
+        int      n     = numTeams - numTeams % 2;
+        int[][]  meets = new int[n / 2][];
+
+        for (int p = 0; p < n / 2; p++) {
+            meets[p] = new int[] { 2 * p, (2 * p + 1 + 2 * week) % n };
+        }
+        return meets;
+    }
+
+
+    // ********************     Records
+    // The roster of team t as an SD3 registration file or an HY3 roster file.
+    public List<String> rosterRecords(int t, SdifReader.SdifFileFormat format)
+    {
+        List<String> recs = new ArrayList<>();
+
+        if (format == SdifReader.SdifFileFormat.HY3) {
+            recs.add(hy3FileDescription(ROSTER_DATE));
+            recs.add(hy3Team(t));
+            for (int a = 0; a < athletesPerTeam; a++) {
+                recs.add(hy3Athlete(t, a));
+            }
+        }
+        else {
+            recs.add(sdifFileDescription("01", ROSTER_DATE));
+            recs.add(sdifTeam(t));
+            for (int a = 0; a < athletesPerTeam; a++) {
+                recs.add(sdifAthleteAdmin(t, a));
+            }
+            recs.add(sdifTerminator("01"));
+        }
+        return recs;
+    }
+
+
+    // The SDIF results of the dual meet between teams t1 and t2 on date.  Each team's
+    // individual swims are ordered by event, then its relays follow.
+    public List<String> resultRecords(int t1, int t2, LocalDate date)
+    {
+        List<String> recs = new ArrayList<>();
+
+        recs.add(sdifFileDescription("02", date));
+        recs.add(sdifMeet("Synthetic Meet " + teamCode(t1) + " v " + teamCode(t2), date));
+        for (int t : new int[] { t1, t2 }) {
+            recs.add(sdifTeam(t));
+            for (int event = 1; event <= numEvents; event++) {
+                for (int a = 0; a < athletesPerTeam; a++) {
+                    for (int athleteEvent : athleteEvents(a)) {
+                        if (athleteEvent == event) {
+                            recs.add(sdifIndividualResult(t, a, event, date));
+                        }
+                    }
+                }
+            }
+            for (int r = 0; r < athletesPerTeam / 4; r++) {
+                recs.add(sdifRelayResult(t, r, date));
+                for (int leg = 0; leg < 4; leg++) {
+                    recs.add(sdifRelayName(t, 4 * r + leg));
+                }
+            }
+        }
+        recs.add(sdifTerminator("02"));
+        return recs;
+    }
+
+
+    // The HY3 meet entries of team t for the meet on date, as sent for rain out and bye weeks.
+    public List<String> entryRecords(int t, LocalDate date)
+    {
+        List<String> recs = new ArrayList<>();
+
+        recs.add(hy3FileDescription(date));
+        recs.add(hy3Meet("Synthetic Meet " + teamCode(t), date));
+        recs.add(hy3Team(t));
+        for (int a = 0; a < athletesPerTeam; a++) {
+            recs.add(hy3Athlete(t, a));
+        }
+        return recs;
+    }
+
+
+    // ********************     Files
+    // Write team t's roster:  a ZIP holding an HY3 file, or an SD3 file.  Return the file's path.
+    public Path writeRosterArchive(Path dir, int t, SdifReader.SdifFileFormat format) throws IOException
+    {
+        String name = teamCode(t) + "_roster";
+        if (format == SdifReader.SdifFileFormat.HY3) {
+            return writeZip(dir.resolve(name + ".zip"), name + ".hy3", rosterRecords(t, format));
+        }
+        return writeRecords(dir.resolve(name + ".sd3"), rosterRecords(t, SdifReader.SdifFileFormat.SD3));
+    }
+
+
+    // Write the results of a dual meet:  a ZIP holding a CL2 file, or an SD3 file.
+    // Return the file's path.
+    public Path writeResultArchive(Path dir, int t1, int t2, LocalDate date,
+                                   SdifReader.SdifFileFormat format) throws IOException
+    {
+        String name = date.format(SDIF_DATE) + "_" + teamCode(t1) + "_" + teamCode(t2);
+        if (format == SdifReader.SdifFileFormat.SD3) {
+            return writeRecords(dir.resolve(name + ".sd3"), resultRecords(t1, t2, date));
+        }
+        return writeZip(dir.resolve(name + ".zip"), name + ".cl2", resultRecords(t1, t2, date));
+    }
+
+
+    // Write the entries of team t as a ZIP holding an HY3 file.  Return the file's path.
+    public Path writeEntryArchive(Path dir, int t, LocalDate date) throws IOException
+    {
+        String name = date.format(SDIF_DATE) + "_" + teamCode(t) + "_entries";
+        return writeZip(dir.resolve(name + ".zip"), name + ".hy3", entryRecords(t, date));
+    }
+
+
+    // Write every team's roster to rosterDir and numWeeks of dual meet results, starting on
+    // firstMeet, to resultDir.  Return the number of files written.
+    public int writeSeason(Path rosterDir, Path resultDir, LocalDate firstMeet, int numWeeks) throws IOException
+    {
+        int numFiles = 0;
+
+        Files.createDirectories(rosterDir);
+        Files.createDirectories(resultDir);
+        for (int t = 0; t < numTeams; t++) {
+            writeRosterArchive(rosterDir, t, SdifReader.SdifFileFormat.HY3);
+            numFiles++;
+        }
+        for (int week = 0; week < numWeeks; week++) {
+            for (int[] meet : weekMeets(week)) {
+                writeResultArchive(resultDir, meet[0], meet[1], firstMeet.plusWeeks(week), SdifReader.SdifFileFormat.CL2);
+                numFiles++;
+            }
+        }
+        return numFiles;
+    }
+
+
+    public static Path writeRecords(Path file, List<String> recs) throws IOException
+    {
+        Files.write(file, toBytes(recs));
+        return file;
+    }
+
+
+    public static Path writeZip(Path zipFile, String entryName, List<String> recs) throws IOException
+    {
+        try (OutputStream out = Files.newOutputStream(zipFile);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry(entryName));
+            zip.write(toBytes(recs));
+            zip.closeEntry();
+        }
+        return zipFile;
+    }
+
+
+    // ********************     Private Methods
+    // The individual events athlete a swims
+    private int[] athleteEvents(int a)
+    {
+        if (numEvents == 1) {
+            return new int[] { 1 };
+        }
+        return new int[] { a % numEvents + 1, (a + 1) % numEvents + 1 };
+    }
+
+
+    // Return true if the swim is a no show.  For a relay, swimmer is the relay number.
+    private boolean isNoShow(int t, int swimmer, int event, LocalDate date)
+    {
+        long h = seed;
+        for (long value : new long[] { t, swimmer, event, date.toEpochDay() }) {
+            h = (h ^ value) * 0x9E3779B97F4A7C15L;
+            h ^= h >>> 31;
+        }
+        return (h >>> 11) * 0x1.0p-53 < noShowRate;
+    }
+
+
+    // The relay athlete a swims in, or -1 if the athlete is left over
+    private int relayOf(int a)
+    {
+        return a / 4 < athletesPerTeam / 4 ? a / 4 : -1;
+    }
+
+
+    private String sdifTeamCode(int t) { return "OH" + teamCode(t); }
+
+    private String swimTime(int t, int a, int event)
+    {
+        int hundredths = 3000 + (t * 7919 + a * 104729 + event * 1299709) % 9000;
+        return String.format("%d:%02d.%02d", hundredths / 6000, hundredths / 100 % 60, hundredths % 100);
+    }
+
+    private static byte[] toBytes(List<String> recs)
+    {
+        return (String.join("\r\n", recs) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+
+    private String sdifFileDescription(String fileCode, LocalDate fileDate)
+    {
+        return new RecBuilder("A0", SDIF_REC_LEN).put(2, "1").put(3, "V3").put(11, fileCode)
+                                                 .put(43, VENDOR).put(63, "1.0")
+                                                 .put(73, "Synthetic Registrar").put(93, "5555550100")
+                                                 .put(105, fileDate.format(SDIF_DATE)).toString();
+    }
+
+    private String sdifMeet(String name, LocalDate date)
+    {
+        return new RecBuilder("B1", SDIF_REC_LEN).put(2, "1").put(11, name).put(41, "1 Pool Lane")
+                                                 .put(85, "Columbus").put(105, "OH").put(107, "43215")
+                                                 .put(121, date.format(SDIF_DATE)).put(129, date.format(SDIF_DATE))
+                                                 .put(149, "Y").toString();
+    }
+
+    private String sdifTeam(int t)
+    {
+        return new RecBuilder("C1", SDIF_REC_LEN).put(2, "1").put(11, sdifTeamCode(t)).put(17, teamName(t))
+                                                 .put(47, teamCode(t)).toString();
+    }
+
+    private String sdifAthleteAdmin(int t, int a)
+    {
+        return new RecBuilder("D1", SDIF_REC_LEN).put(2, "1").put(11, sdifTeamCode(t)).put(18, athleteName(t, a))
+                                                 .put(59, "A").put(60, "USA")
+                                                 .put(63, athleteDob(t, a).format(SDIF_DATE))
+                                                 .put(73, athleteGender(t, a)).toString();
+    }
+
+    private String sdifIndividualResult(int t, int a, int event, LocalDate date)
+    {
+        String finalsTime = isNoShow(t, a, event, date) ? "NS" : String.format("%8s", swimTime(t, a, event));
+        return new RecBuilder("D0", SDIF_REC_LEN).put(2, "1").put(11, athleteName(t, a)).put(51, "A").put(52, "USA")
+                                                 .put(55, athleteDob(t, a).format(SDIF_DATE))
+                                                 .put(65, athleteGender(t, a)).put(66, athleteGender(t, a))
+                                                 .put(67, "  25").put(71, Integer.toString(event % 5 + 1))
+                                                 .put(72, String.format("%4d", event)).put(76, "UN18")
+                                                 .put(80, date.format(SDIF_DATE)).put(115, finalsTime)
+                                                 .put(123, "Y").toString();
+    }
+
+    private String sdifRelayResult(int t, int r, LocalDate date)
+    {
+        String finalsTime = isNoShow(t, r, RELAY_EVENT, date) ? "NS" : String.format("%8s", swimTime(t, r, RELAY_EVENT));
+        return new RecBuilder("E0", SDIF_REC_LEN).put(2, "1").put(11, Character.toString((char) ('A' + r % 26)))
+                                                 .put(12, sdifTeamCode(t)).put(18, " 4").put(20, "X").put(21, " 100")
+                                                 .put(25, "6").put(26, String.format("%4d", numEvents + 1))
+                                                 .put(30, "UN18").put(37, date.format(SDIF_DATE))
+                                                 .put(72, finalsTime).put(80, "Y").toString();
+    }
+
+    private String sdifRelayName(int t, int a)
+    {
+        return new RecBuilder("F0", SDIF_REC_LEN).put(2, "1").put(15, sdifTeamCode(t))
+                                                 .put(21, Character.toString((char) ('A' + a / 4 % 26)))
+                                                 .put(22, athleteName(t, a))
+                                                 .put(65, athleteDob(t, a).format(SDIF_DATE))
+                                                 .put(75, athleteGender(t, a)).put(76, Integer.toString(a % 4 + 1))
+                                                 .toString();
+    }
+
+    private String sdifTerminator(String fileCode)
+    {
+        return new RecBuilder("Z0", SDIF_REC_LEN).put(2, "1").put(11, fileCode).toString();
+    }
+
+
+    private String hy3FileDescription(LocalDate fileDate)
+    {
+        return new RecBuilder("A1", HY3_REC_LEN).put(2, "02").put(4, "Roster").put(29, VENDOR)
+                                                .put(58, fileDate.format(SDIF_DATE)).toString();
+    }
+
+    private String hy3Meet(String name, LocalDate date)
+    {
+        return new RecBuilder("B1", HY3_REC_LEN).put(2, name).put(47, "Synthetic Pool")
+                                                .put(92, date.format(SDIF_DATE)).put(100, date.format(SDIF_DATE))
+                                                .toString();
+    }
+
+    private String hy3Team(int t)
+    {
+        return new RecBuilder("C1", HY3_REC_LEN).put(2, teamCode(t)).put(7, teamName(t)).put(37, teamCode(t))
+                                                .put(53, "OH").toString();
+    }
+
+    private String hy3Athlete(int t, int a)
+    {
+        return new RecBuilder("D1", HY3_REC_LEN).put(2, athleteGender(t, a)).put(3, String.format("%5d", a + 1))
+                                                .put(8, athleteLastName(t, a)).put(28, athleteFirstName(t, a))
+                                                .put(68, Character.toString(athleteMiddleInitial(t, a)))
+                                                .put(88, athleteDob(t, a).format(SDIF_DATE)).toString();
+    }
+
+
+    // A fixed width record, blank except for the fields that are put into it
+    private static final class RecBuilder
+    {
+        private final char[] buf;
+
+        RecBuilder(String code, int len)
+        {
+            buf = new char[len];
+            Arrays.fill(buf, ' ');
+            put(0, code);
+        }
+
+        RecBuilder put(int offset, String value)
+        {
+            value.getChars(0, value.length(), buf, offset);
+            return this;
+        }
+
+        @Override
+        public String toString() { return new String(buf); }
+    }
+}
@@ -0,0 +1,143 @@
+package org.gcsl.sdif;
+
+import org.gcsl.util.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SdifReaderTest
+{
+    private Path sdifFile;
+
+    @BeforeEach
+    void createFile() throws IOException
+    {
+        sdifFile = Files.createTempFile("sdif_reader_test", ".cl2");
+    }
+
+    // A memory mapped file can't be deleted on Windows until the mapping is garbage collected,
+    // so a file that is still mapped is left to be deleted when the JVM exits.
+    @AfterEach
+    void deleteFile()
+    {
+        try {
+            Files.deleteIfExists(sdifFile);
+        }
+        catch (IOException e) {
+            sdifFile.toFile().deleteOnExit();
+        }
+    }
+
+    @Test
+    void testBufferedAndMappedReadSameRecords() throws Exception
+    {
+        // mix of line terminators, last line has none
+        writeFile(fileDescriptionRec() + "\r\n" + "B11        Meet Name\n" + "C11\r" + "Z0");
+
+        List<String> buffered = readAll(SdifReader.ReadMode.BUFFERED);
+        List<String> mapped   = readAll(SdifReader.ReadMode.MAPPED);
+
+        assertEquals(3, buffered.size());
+        assertEquals(buffered, mapped);
+        assertEquals("B11        Meet Name", mapped.get(0));
+        assertEquals("Z0", mapped.get(2));
+    }
+
+    @Test
+    void testFileDescriptionIsRead() throws Exception
+    {
+        writeFile(fileDescriptionRec() + "\r\n");
+
+        try (SdifReader reader = new SdifReader(sdifFile.toString(), SdifReader.ReadMode.MAPPED)) {
+            SdifFileDescription description = reader.getFileDescription();
+            assertEquals(SdifFileDescription.SdifFileType.MEET_RESULTS, description.getFileType());
+            assertEquals("2017-07-12", description.getFileDate());
+            assertEquals(SdifReader.SdifFileFormat.CL2, reader.getFileFormat());
+            assertFalse(reader.iterator().hasNext());
+        }
+    }
+
+    @Test
+    void testInMemoryDataReadsSameRecords() throws Exception
+    {
+        String contents = fileDescriptionRec() + "\r\n" + "B11        Meet Name\r\n" + "Z0\r\n";
+        byte[] bytes = contents.getBytes(StandardCharsets.US_ASCII);
+        writeFile(contents);
+
+        List<String> fromBytes  = new ArrayList<>();
+        List<String> fromStream = new ArrayList<>();
+        try (SdifReader reader = new SdifReader("results.cl2", ByteBuffer.wrap(bytes))) {
+            reader.forEach(rec -> fromBytes.add(rec.getDataBuf()));
+        }
+        try (SdifReader reader = new SdifReader("results.cl2", new ByteArrayInputStream(bytes))) {
+            assertEquals(SdifReader.SdifFileFormat.CL2, reader.getFileFormat());
+            reader.forEach(rec -> fromStream.add(rec.getDataBuf()));
+        }
+
+        assertEquals(readAll(SdifReader.ReadMode.BUFFERED), fromBytes);
+        assertEquals(fromBytes, fromStream);
+    }
+
+    @Test
+    void testEmptyFileThrows() throws Exception
+    {
+        writeFile("");
+        assertThrows(SdifException.class, () -> new SdifReader(sdifFile.toString(), SdifReader.ReadMode.MAPPED));
+        assertThrows(SdifException.class, () -> new SdifReader(sdifFile.toString(), SdifReader.ReadMode.BUFFERED));
+    }
+
+    // Each file is timed once when it is closed, however its records were read.
+    @Test
+    void testEveryWayOfReadingIsTimed() throws Exception
+    {
+        writeFile(fileDescriptionRec() + "\r\n" + "B11        Meet Name\r\n" + "Z0\r\n");
+        Metrics.reset();
+
+        readAll(SdifReader.ReadMode.MAPPED);
+        try (Stream<SdifRec> recs = new SdifReader(sdifFile.toString(), SdifReader.ReadMode.BUFFERED).records()) {
+            assertEquals(2, recs.count());
+        }
+        assertEquals(2, new SdifReader(sdifFile.toString(), SdifReader.ReadMode.BUFFERED).readFile().size());
+
+        assertEquals(3, Metrics.getTimerCount("sdif.readFile"));
+        assertEquals(6, Metrics.getCount("sdif.records"));
+        Metrics.reset();
+    }
+
+
+    private String fileDescriptionRec()
+    {
+        StringBuilder sb = new StringBuilder("A01V3      02");
+        while (sb.length() < 105) { sb.append(' '); }
+        sb.append("07122017");
+        return sb.toString();
+    }
+
+    private List<String> readAll(SdifReader.ReadMode mode) throws SdifException
+    {
+        List<String> lines = new ArrayList<>();
+        try (SdifReader reader = new SdifReader(sdifFile.toString(), mode)) {
+            for (SdifRec rec : reader) {
+                lines.add(rec.getDataBuf());
+            }
+        }
+        return lines;
+    }
+
+    private void writeFile(String contents) throws IOException
+    {
+        Files.write(sdifFile, contents.getBytes(StandardCharsets.US_ASCII));
+    }
+}
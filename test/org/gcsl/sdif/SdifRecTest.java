@@ -0,0 +1,66 @@
+package org.gcsl.sdif;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SdifRecTest
+{
+    private static final String D0_DATA = "D08        Ertz,   Lauren                          A   1120200115FF 1001 71 UN1807122017 1:00.24Y                   1:02.35Y     2 6     3       3  01      NN77\n";
+
+    @Test
+    void testRecordTypeFromData()
+    {
+        assertEquals(SdifRec.SdifRecType.INDIVIDUAL_EVENT_REC, new SdifRec(D0_DATA).getType());
+        assertEquals(SdifRec.SdifRecType.INVALID_REC, new SdifRec("D").getType());
+        assertEquals(SdifRec.SdifRecType.INVALID_REC, new SdifRec("Q9 unknown").getType());
+    }
+
+    @Test
+    void testFieldIsTrimmed()
+    {
+        SdifRec rec = new SdifRec(D0_DATA);
+        SdifField name = rec.field(11, 28);
+
+        assertEquals("Ertz,   Lauren", name.toString());
+        assertEquals("Ertz, Lauren", name.toCollapsedString());
+        assertEquals(14, name.length());
+        assertEquals('E', name.charAt(0));
+    }
+
+    @Test
+    void testRawFieldIsNotTrimmed()
+    {
+        SdifRec rec = new SdifRec(D0_DATA);
+        assertEquals("        ", rec.rawField(3, 8).toString());
+        assertTrue(rec.field(3, 8).isEmpty());
+    }
+
+    @Test
+    void testFieldContentEquals()
+    {
+        SdifRec rec = new SdifRec(D0_DATA);
+        assertTrue(rec.field(115, 8).contentEquals("1:02.35"));
+        assertFalse(rec.field(115, 8).contentEquals("NS"));
+    }
+
+    @Test
+    void testFieldOutsideRecordThrows()
+    {
+        SdifRec rec = new SdifRec("D0 short");
+        assertThrows(IndexOutOfBoundsException.class, () -> rec.field(5, 10));
+    }
+
+    @Test
+    void testSubSequenceStaysInsideField()
+    {
+        SdifRec   rec  = new SdifRec(D0_DATA);
+        SdifField name = rec.field(11, 28);   // "Ertz,   Lauren", with record data on both sides
+
+        assertEquals("Lauren", name.subSequence(8, 14).toString());
+        assertEquals("", name.subSequence(14, 14).toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> name.subSequence(-1, 4));
+        assertThrows(IndexOutOfBoundsException.class, () -> name.subSequence(8, 15));
+        assertThrows(IndexOutOfBoundsException.class, () -> name.subSequence(5, 4));
+    }
+}
@@ -0,0 +1,62 @@
+package org.gcsl.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest
+{
+    @AfterEach
+    void resetMetrics()
+    {
+        Metrics.reset();
+    }
+
+    @Test
+    void testCountersAndTimers()
+    {
+        Metrics.count("test.counter");
+        Metrics.count("test.counter", 4);
+        Metrics.recordNanos("test.timer", 1_500_000);
+        Metrics.recordTime("test.timer", System.nanoTime());
+
+        assertEquals(5, Metrics.getCount("test.counter"));
+        assertEquals(0, Metrics.getCount("test.missing"));
+        assertEquals(2, Metrics.getTimerCount("test.timer"));
+
+        String summary = Metrics.summary();
+        assertTrue(summary.contains("test.counter"));
+        assertTrue(summary.contains("test.timer"));
+    }
+
+    // Each dump reports what was recorded since the previous one.
+    @Test
+    void testDumpDropsTheDumpedMetrics()
+    {
+        Metrics.count("test.counter", 3);
+        Metrics.recordNanos("test.timer", 1_000);
+        Metrics.dump("first task");
+
+        assertEquals(0, Metrics.getCount("test.counter"));
+        assertEquals(0, Metrics.getTimerCount("test.timer"));
+
+        Metrics.count("test.counter");
+        assertEquals(1, Metrics.getCount("test.counter"));
+        assertFalse(Metrics.summary().contains("test.timer"));
+    }
+
+    @Test
+    void testHistogramPercentiles()
+    {
+        Metrics.Histogram histogram = new Metrics.Histogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        // 50 is in the 32..63 bucket, 99 in the 64..127 bucket capped at the max of 100
+        assertEquals(63, histogram.percentile(50));
+        assertEquals(100, histogram.percentile(99));
+        assertEquals(0, new Metrics.Histogram().percentile(50));
+    }
+}